@@ -25,26 +25,26 @@ public class ChampionMasteryApi extends RiotSubApi {
         WebTarget target = getFunctionTarget("{summonerId}/champion/{championId}")
                 .resolveTemplate("summonerId", summonerId)
                 .resolveTemplate("championId", championId);
-        return processApiResponse(new RiotApiResponse<>(riotApi.prepareRequest(target), ChampionMasteryDto.class));
+        return processApiResponse("getSummonersChampionMasteryByChampion", target, new RiotApiResponse<>(riotApi.prepareRequest(target), ChampionMasteryDto.class));
     }
 
     public RiotApiResponse<List<ChampionMasteryDto>> getSummonersChampionMastery(long summonerId) {
         WebTarget target = getFunctionTarget("{summonerId}/champions")
                 .resolveTemplate("summonerId", summonerId);
-        return processApiResponse(new RiotApiResponse<>(riotApi.prepareRequest(target), new TypeToken<List<ChampionMasteryDto>>() {
+        return processApiResponse("getSummonersChampionMastery", target, new RiotApiResponse<>(riotApi.prepareRequest(target), new TypeToken<List<ChampionMasteryDto>>() {
         }.getType()));
     }
 
     public RiotApiResponse<Integer> getSummonersChampionMasteryScore(long summonerId) {
         WebTarget target = getFunctionTarget("{summonerId}/score")
                 .resolveTemplate("summonerId", summonerId);
-        return processApiResponse(new RiotApiResponse<>(riotApi.prepareRequest(target), Integer.class));
+        return processApiResponse("getSummonersChampionMasteryScore", target, new RiotApiResponse<>(riotApi.prepareRequest(target), Integer.class));
     }
 
     public RiotApiResponse<List<ChampionMasteryDto>> getSummonersChampionMasteryTopChampions(long summonerId) {
         WebTarget target = getFunctionTarget("{summonerId}/topchampions")
                 .resolveTemplate("summonerId", summonerId);
-        return processApiResponse(new RiotApiResponse<>(riotApi.prepareRequest(target), new TypeToken<List<ChampionMasteryDto>>() {
+        return processApiResponse("getSummonersChampionMasteryTopChampions", target, new RiotApiResponse<>(riotApi.prepareRequest(target), new TypeToken<List<ChampionMasteryDto>>() {
         }.getType()));
     }
 
@@ -52,7 +52,7 @@ public class ChampionMasteryApi extends RiotSubApi {
         WebTarget target = getFunctionTarget("{summonerId}/topchampions")
                 .resolveTemplate("summonerId", summonerId)
                 .queryParam("count", count);
-        return processApiResponse(new RiotApiResponse<>(riotApi.prepareRequest(target), new TypeToken<List<ChampionMasteryDto>>() {
+        return processApiResponse("getSummonersChampionMasteryTopChampions", target, new RiotApiResponse<>(riotApi.prepareRequest(target), new TypeToken<List<ChampionMasteryDto>>() {
         }.getType()));
     }
 
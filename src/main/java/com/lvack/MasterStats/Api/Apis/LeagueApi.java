@@ -1,6 +1,7 @@
 package com.lvack.MasterStats.Api.Apis;
 
 import com.google.gson.reflect.TypeToken;
+import com.lvack.MasterStats.Api.Batching.IdBatcher;
 import com.lvack.MasterStats.Api.ResponseClasses.LeagueDto;
 import com.lvack.MasterStats.Api.RiotApi;
 import com.lvack.MasterStats.Api.RiotApiResponse;
@@ -18,15 +19,24 @@ import java.util.List;
 
 public class LeagueApi extends RiotSubApi {
     private static final String BASE_PATH = "/api/lol/{region}/v2.5/league/";
+    private static final int MAX_IDS = 10;
+    // combines the ids requested at about the same time into one request
+    private final IdBatcher<List<LeagueDto>> idBatcher =
+            new IdBatcher<>(MAX_IDS, IdBatcher.DEFAULT_LINGER_MILLIS, this::requestLeagueBySummoner);
 
     public LeagueApi(RiotApi riotApi) {
+        // not cached, the requests contain only the summoners whose rank is unknown, so they hardly ever repeat
         super(BASE_PATH, riotApi);
     }
 
     public RiotApiResponse<HashMap<String, List<LeagueDto>>> getLeagueBySummoner(Long... summonerIds) {
+        return idBatcher.request(summonerIds);
+    }
+
+    private RiotApiResponse<HashMap<String, List<LeagueDto>>> requestLeagueBySummoner(Long... summonerIds) {
         WebTarget target = getFunctionTarget("by-summoner/{summonerIds}")
                 .resolveTemplate("summonerIds", RiotApiUtils.arrayToCommaSeparatedList(summonerIds));
-        return processApiResponse(new RiotApiResponse<>(riotApi.prepareRequest(target),
+        return processApiResponse("getLeagueBySummoner", target, new RiotApiResponse<>(riotApi.prepareRequest(target),
                 new TypeToken<HashMap<String, List<LeagueDto>>>() {
                 }.getType()));
     }
@@ -1,5 +1,6 @@
 package com.lvack.MasterStats.Api.Apis;
 
+import com.lvack.MasterStats.Api.Cache.ResponseCache;
 import com.lvack.MasterStats.Api.ResponseClasses.MatchDetail;
 import com.lvack.MasterStats.Api.RiotApi;
 import com.lvack.MasterStats.Api.RiotApiResponse;
@@ -16,12 +17,13 @@ public class MatchApi extends RiotSubApi {
     private static final String BASE_PATH = "/api/lol/{region}/v2.2/match/";
 
     public MatchApi(RiotApi riotApi) {
-        super(BASE_PATH, riotApi);
+        // match details never change once the match is finished
+        super(BASE_PATH, riotApi, ResponseCache.PERMANENT);
     }
 
     public RiotApiResponse<MatchDetail> getMatchById(Long matchId) {
         WebTarget target = getFunctionTarget("{matchId}")
                 .resolveTemplate("matchId", matchId);
-        return processApiResponse(new RiotApiResponse<>(riotApi.prepareRequest(target), MatchDetail.class));
+        return processApiResponse("getMatchById", target, new RiotApiResponse<>(riotApi.prepareRequest(target), MatchDetail.class));
     }
 }
@@ -20,10 +20,24 @@ public class MatchListApi extends RiotSubApi {
     }
 
     public RiotApiResponse<MatchList> getMatchListBySummoner(Long summonerId, int beginIndex, int endIndex) {
+        return getMatchListBySummoner(summonerId, 0, beginIndex, endIndex);
+    }
+
+    /**
+     * requests the match list of a summoner, only containing matches played since the given time
+     *
+     * @param summonerId the summoner id
+     * @param beginTime  the time in milliseconds of the oldest match to return, 0 to return matches of any time
+     * @param beginIndex the index of the first match to return
+     * @param endIndex   the index after the last match to return
+     * @return the response of the request
+     */
+    public RiotApiResponse<MatchList> getMatchListBySummoner(Long summonerId, long beginTime, int beginIndex, int endIndex) {
         WebTarget target = getFunctionTarget("by-summoner/{summonerId}")
                 .resolveTemplate("summonerId", summonerId)
                 .queryParam("beginIndex", beginIndex)
                 .queryParam("endIndex", endIndex);
-        return processApiResponse(new RiotApiResponse<>(riotApi.prepareRequest(target), MatchList.class));
+        if (beginTime > 0) target = target.queryParam("beginTime", beginTime);
+        return processApiResponse("getMatchListBySummoner", target, new RiotApiResponse<>(riotApi.prepareRequest(target), MatchList.class));
     }
 }
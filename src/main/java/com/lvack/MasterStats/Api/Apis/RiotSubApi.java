@@ -1,5 +1,6 @@
 package com.lvack.MasterStats.Api.Apis;
 
+import com.lvack.MasterStats.Api.Metrics.RiotApiMetrics;
 import com.lvack.MasterStats.Api.RiotApi;
 import com.lvack.MasterStats.Api.RiotApiResponse;
 
@@ -14,10 +15,17 @@ import javax.ws.rs.client.WebTarget;
 abstract class RiotSubApi {
     final RiotApi riotApi;
     private final String basePath;
+    // time in milliseconds responses of the sub api are cached, 0 if they are not cached
+    private final long cacheTtl;
 
     RiotSubApi(String basePath, RiotApi riotApi) {
+        this(basePath, riotApi, 0);
+    }
+
+    RiotSubApi(String basePath, RiotApi riotApi, long cacheTtl) {
         this.basePath = basePath;
         this.riotApi = riotApi;
+        this.cacheTtl = cacheTtl;
     }
 
     /**
@@ -31,14 +39,26 @@ abstract class RiotSubApi {
     }
 
     /**
-     * processes a riot api response by setting the rate limiter and sending the get request
+     * processes a riot api response by setting the key pool and priority and sending the get request.
+     * the key pool is used to select a key and wait for its capacity (for the priority of the riot api)
+     * before sending, the rate limiter of the key is updated with the rate limit headers once the response arrives.
+     * if the responses of the sub api are cached, the response cache is set so cached responses are used.
+     * the circuit breaker of the endpoint is set, so requests fail right away while it is open.
+     * the metrics of the function and region are set to record the queue wait, latency, status and size of the requests
      *
+     * @param method   the name of the sub api function, used for the metrics
+     * @param target   the target of the request, used as cache key
      * @param response the response to process
      * @param <T>      the return type of the response
-     * @return the process response
+     * @return the process response, a future completed once the response arrived
      */
-    protected <T> RiotApiResponse<T> processApiResponse(RiotApiResponse<T> response) {
-        response.setRateLimiter(riotApi.getRateLimiter());
+    protected <T> RiotApiResponse<T> processApiResponse(String method, WebTarget target, RiotApiResponse<T> response) {
+        if (cacheTtl > 0 && riotApi.getResponseCache() != null)
+            response.setResponseCache(riotApi.getResponseCache(), riotApi.getCacheKey(target), cacheTtl);
+        response.setKeyPool(riotApi.getKeyPool());
+        response.setPriority(riotApi.getPriority());
+        response.setCircuitBreaker(riotApi.getCircuitBreaker());
+        response.setMetrics(RiotApiMetrics.get(getClass().getSimpleName(), method, riotApi.getEndpoint()));
         response.sendGet();
         return response;
     }
@@ -6,6 +6,7 @@ import com.lvack.MasterStats.Api.RiotApiResponse;
 import com.lvack.MasterStats.Api.StaticData.RiotEndpoint;
 
 import javax.ws.rs.client.WebTarget;
+import java.util.concurrent.TimeUnit;
 
 /**
  * StaticDataApiClass for MasterStats
@@ -15,14 +16,16 @@ import javax.ws.rs.client.WebTarget;
 
 public class StaticDataApi extends RiotSubApi {
     private static final String BASE_PATH = "/api/lol/static-data/{region}/v1.2/";
+    // static data only changes with new game versions
+    private static final long CACHE_TTL = TimeUnit.HOURS.toMillis(12);
 
     public StaticDataApi(RiotApi riotApi) {
-        super(BASE_PATH, riotApi);
+        super(BASE_PATH, riotApi, CACHE_TTL);
     }
 
     public RiotApiResponse<ChampionListDto> getChampions() {
         WebTarget target = getFunctionTarget("champion")
                 .queryParam("champData", "image");
-        return processApiResponse(new RiotApiResponse<>(riotApi.prepareRequest(target), ChampionListDto.class));
+        return processApiResponse("getChampions", target, new RiotApiResponse<>(riotApi.prepareRequest(target), ChampionListDto.class));
     }
 }
@@ -2,6 +2,7 @@ package com.lvack.MasterStats.Api.Apis;
 
 import com.google.gson.reflect.TypeToken;
 import com.lvack.MasterStats.Api.ResponseClasses.SummonerDto;
+import com.lvack.MasterStats.Api.Batching.IdBatcher;
 import com.lvack.MasterStats.Api.RiotApi;
 import com.lvack.MasterStats.Api.RiotApiResponse;
 import com.lvack.MasterStats.Api.RiotApiUtils;
@@ -18,6 +19,10 @@ import java.util.Map;
 
 public class SummonerApi extends RiotSubApi {
     private static final String BASE_PATH = "/api/lol/{region}/v1.4/summoner/";
+    private static final int MAX_IDS = 40;
+    // combines the ids requested at about the same time into one request
+    private final IdBatcher<SummonerDto> idBatcher =
+            new IdBatcher<>(MAX_IDS, IdBatcher.DEFAULT_LINGER_MILLIS, this::requestSummonersByIds);
 
     public SummonerApi(RiotApi riotApi) {
         super(BASE_PATH, riotApi);
@@ -26,16 +31,20 @@ public class SummonerApi extends RiotSubApi {
     public RiotApiResponse<Map<String, SummonerDto>> getSummonersByNames(String... names) {
         WebTarget target = getFunctionTarget("by-name/{names}")
                 .resolveTemplate("names", RiotApiUtils.arrayToCommaSeparatedList(names));
-        return processApiResponse(new RiotApiResponse<>(riotApi.prepareRequest(target),
+        return processApiResponse("getSummonersByNames", target, new RiotApiResponse<>(riotApi.prepareRequest(target),
                 new TypeToken<HashMap<String, SummonerDto>>() {
                 }.getType()));
     }
 
-    public RiotApiResponse<Map<String, SummonerDto>> getSummonersByIds(Long... ids) {
+    public RiotApiResponse<HashMap<String, SummonerDto>> getSummonersByIds(Long... ids) {
+        return idBatcher.request(ids);
+    }
+
+    private RiotApiResponse<HashMap<String, SummonerDto>> requestSummonersByIds(Long... ids) {
         WebTarget target = getFunctionTarget("{ids}")
                 .resolveTemplate("ids", RiotApiUtils.arrayToCommaSeparatedList(ids));
 
-        return processApiResponse(new RiotApiResponse<>(riotApi.prepareRequest(target),
+        return processApiResponse("getSummonersByIds", target, new RiotApiResponse<>(riotApi.prepareRequest(target),
                 new TypeToken<HashMap<String, SummonerDto>>() {
                 }.getType()));
     }
@@ -0,0 +1,205 @@
+package com.lvack.MasterStats.Api.Batching;
+
+import com.lvack.MasterStats.Api.RiotApiResponse;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * IdBatcherClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * batches requests of riot api functions accepting a comma separated list of ids (e.g. summoners by ids).
+ * the ids requested by all callers are collected for a few milliseconds (or until the maximum list size
+ * of the function is reached) and requested in one call, the resulting map (with the ids as keys)
+ * is split up again and each caller gets a response with the entries of the ids they requested.
+ * the shared flush executor only schedules the batches which are not full, they are sent by the executor of the
+ * batcher, as sending waits for the rate limiter and batchers of other regions and priorities must not wait for it
+ *
+ * @param <V> the type of the values of the resulting map
+ */
+public class IdBatcher<V> {
+    public static final long DEFAULT_LINGER_MILLIS = 5;
+    private static final long SEND_THREAD_KEEP_ALIVE_SECONDS = 60;
+    // executor scheduling the flushes of the batches once the linger time passed, it never waits for a rate limiter
+    private static final ScheduledExecutorService FLUSH_EXECUTOR = Executors.newScheduledThreadPool(1, r -> {
+        Thread thread = new Thread(r);
+        thread.setName("idBatcherThread");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final int maxBatchSize;
+    private final long lingerMillis;
+    private final Function<Long[], RiotApiResponse<HashMap<String, V>>> batchRequest;
+    // executor sending the flushed batches of this batcher, its thread is stopped while no batches are flushed
+    private final ThreadPoolExecutor sendExecutor;
+    // ids and requests of the batch currently collected
+    private LinkedHashSet<Long> batchIds = new LinkedHashSet<>();
+    private List<BatchedRequest> batchRequests = new ArrayList<>();
+    // the flush scheduled for the batch currently collected and the number of that batch
+    private ScheduledFuture<?> scheduledFlush = null;
+    private long batchNumber = 0;
+
+    /**
+     * @param maxBatchSize the maximum number of ids the function accepts
+     * @param lingerMillis the time in milliseconds ids are collected before the batch is sent
+     * @param batchRequest the function sending a request for the given ids
+     */
+    public IdBatcher(int maxBatchSize, long lingerMillis, Function<Long[], RiotApiResponse<HashMap<String, V>>> batchRequest) {
+        this.maxBatchSize = maxBatchSize;
+        this.lingerMillis = lingerMillis;
+        this.batchRequest = batchRequest;
+        sendExecutor = new ThreadPoolExecutor(1, 1, SEND_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r);
+            thread.setName("idBatcherSendThread");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sendExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * adds the ids to the batches and returns a response completed once all batches containing them finished
+     *
+     * @param ids the ids to request
+     * @return the response with the entries of the given ids, null if a request failed.
+     * the status is 200 if any of the ids was found, 404 if none was found and the status of the failed request otherwise
+     */
+    public RiotApiResponse<HashMap<String, V>> request(Long... ids) {
+        RiotApiResponse<HashMap<String, V>> response = new RiotApiResponse<>();
+        Set<Long> requestIds = new LinkedHashSet<>(Arrays.asList(ids));
+        if (requestIds.isEmpty()) {
+            response.complete(new HashMap<>(), 404);
+            return response;
+        }
+
+        BatchedRequest request = new BatchedRequest(requestIds, response);
+        List<Batch> fullBatches = new ArrayList<>();
+        synchronized (this) {
+            for (Long id : requestIds) {
+                // start a new batch if the current one is full
+                if (!batchIds.contains(id) && batchIds.size() >= maxBatchSize) fullBatches.add(takeBatch());
+                if (batchIds.isEmpty()) {
+                    long flushedBatch = batchNumber;
+                    scheduledFlush = FLUSH_EXECUTOR.schedule(() -> flush(flushedBatch), lingerMillis, TimeUnit.MILLISECONDS);
+                }
+                batchIds.add(id);
+                if (batchRequests.isEmpty() || batchRequests.get(batchRequests.size() - 1) != request) {
+                    batchRequests.add(request);
+                    request.outstandingBatches++;
+                }
+            }
+            if (batchIds.size() >= maxBatchSize) fullBatches.add(takeBatch());
+        }
+        // send full batches right away, outside of the lock as sending waits for the rate limiter
+        fullBatches.forEach(this::send);
+        return response;
+    }
+
+    /**
+     * hands the batch currently collected to the send executor, called once the linger time of the batch passed
+     *
+     * @param flushedBatch the number of the batch the flush was scheduled for, if that batch was already
+     *                     taken (because it was full) the flush is ignored
+     */
+    private void flush(long flushedBatch) {
+        Batch batch;
+        synchronized (this) {
+            if (flushedBatch != batchNumber || batchIds.isEmpty()) return;
+            batch = takeBatch();
+        }
+        sendExecutor.execute(() -> send(batch));
+    }
+
+    /**
+     * removes the batch currently collected, cancels its scheduled flush and starts a new one
+     *
+     * @return the removed batch
+     */
+    private Batch takeBatch() {
+        Batch batch = new Batch(batchIds, batchRequests);
+        if (scheduledFlush != null) scheduledFlush.cancel(false);
+        scheduledFlush = null;
+        batchNumber++;
+        batchIds = new LinkedHashSet<>();
+        batchRequests = new ArrayList<>();
+        return batch;
+    }
+
+    /**
+     * sends a batch and completes the requests in it once the response arrived
+     *
+     * @param batch the batch to send
+     */
+    private void send(Batch batch) {
+        RiotApiResponse<HashMap<String, V>> response;
+        try {
+            response = batchRequest.apply(batch.ids.toArray(new Long[batch.ids.size()]));
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            batch.requests.forEach(r -> r.complete(null, 0));
+            return;
+        }
+        response.whenComplete((result, throwable) -> {
+            int status = response.getStatus();
+            batch.requests.forEach(r -> r.complete(result, status));
+        });
+    }
+
+    /**
+     * a batch of ids sent in one request and the requests waiting for it
+     */
+    private class Batch {
+        private final Set<Long> ids;
+        private final List<BatchedRequest> requests;
+
+        Batch(Set<Long> ids, List<BatchedRequest> requests) {
+            this.ids = ids;
+            this.requests = requests;
+        }
+    }
+
+    /**
+     * the request of a caller, possibly split up into multiple batches
+     */
+    private class BatchedRequest {
+        private final Set<Long> ids;
+        private final RiotApiResponse<HashMap<String, V>> response;
+        private final HashMap<String, V> result = new HashMap<>();
+        private int outstandingBatches = 0;
+        private int failedStatus = 0;
+        private boolean failed = false;
+
+        BatchedRequest(Set<Long> ids, RiotApiResponse<HashMap<String, V>> response) {
+            this.ids = ids;
+            this.response = response;
+        }
+
+        /**
+         * adds the entries of the requested ids in the result of a batch
+         * and completes the response once all batches finished
+         *
+         * @param batchResult the result of the batch, null if the batch failed or nothing was found
+         * @param status      the status of the batch response
+         */
+        synchronized void complete(Map<String, V> batchResult, int status) {
+            if (status == 200 && batchResult != null) {
+                ids.stream().map(String::valueOf).filter(batchResult::containsKey)
+                        .forEach(id -> result.put(id, batchResult.get(id)));
+            } else if (status != 404 && !failed) {
+                failed = true;
+                failedStatus = status;
+            }
+            if (--outstandingBatches > 0) return;
+
+            if (failed) response.complete(null, failedStatus);
+            else if (!result.isEmpty()) response.complete(result, 200);
+            else response.complete(null, 404);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.lvack.MasterStats.Api.Cache;
+
+import com.google.common.hash.Hashing;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ResponseCacheClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * disk-backed cache for riot api response bodies. every entry is stored in its own file in the cache directory
+ * and expires after the time to live it was stored with. the total size of the entries is bounded,
+ * the least recently used entries are removed once it is exceeded. entries stored by earlier runs are loaded
+ * on creation, so responses are still cached after restarts
+ */
+@Slf4j
+public class ResponseCache {
+    public static final long PERMANENT = Long.MAX_VALUE;
+    private static final int LOG_INTERVAL = 10000;
+    private static final String FILE_SUFFIX = ".cache";
+    private final File directory;
+    private final long maxBytes;
+    // entries ordered by last access, the first entry is the least recently used one
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private long totalBytes = 0;
+
+    /**
+     * creates the cache and loads the entries stored in the directory
+     *
+     * @param directory the directory to store the entries in, created if it does not exist
+     * @param maxBytes  the maximum total size of all entries in bytes
+     */
+    public ResponseCache(File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        if (!directory.exists() && !directory.mkdirs())
+            log.warn(String.format("Could not create response cache directory '%s'", directory.getAbsolutePath()));
+        loadEntries();
+        log.info(String.format("Created response cache in '%s' with %d entries (%d of %d bytes)",
+                directory.getAbsolutePath(), entries.size(), totalBytes, maxBytes));
+    }
+
+    /**
+     * reads the headers of all entry files in the directory, oldest files first so the
+     * most recently written entries are the last ones to be removed
+     */
+    private synchronized void loadEntries() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(FILE_SUFFIX));
+        if (files == null) return;
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        long now = System.currentTimeMillis();
+        for (File file : files) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                String key = in.readUTF();
+                long expires = in.readLong();
+                if (expires < now) {
+                    deleteFile(file);
+                    continue;
+                }
+                CacheEntry entry = new CacheEntry(file, file.length(), expires);
+                entries.put(key, entry);
+                totalBytes += entry.size;
+            } catch (IOException e) {
+                log.warn(String.format("Removing unreadable response cache file '%s'", file.getName()));
+                deleteFile(file);
+            }
+        }
+        evict();
+    }
+
+    /**
+     * returns the cached response body for the key if an entry exists and has not expired
+     *
+     * @param key the cache key (the request uri without the api key)
+     * @return the response body, null if the key is not cached
+     */
+    public byte[] get(String key) {
+        CacheEntry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && entry.expires < System.currentTimeMillis()) {
+                remove(key);
+                entry = null;
+            }
+        }
+        byte[] body = entry == null ? null : readBody(key, entry.file);
+        if (body == null) misses.incrementAndGet();
+        else hits.incrementAndGet();
+        if ((hits.get() + misses.get()) % LOG_INTERVAL == 0) log.info(getStatistics());
+        return body;
+    }
+
+    /**
+     * stores a response body, replacing the entry for the key if one exists
+     *
+     * @param key  the cache key (the request uri without the api key)
+     * @param body the response body
+     * @param ttl  the time in milliseconds the entry is valid, PERMANENT for entries which never expire
+     */
+    public void put(String key, byte[] body, long ttl) {
+        long now = System.currentTimeMillis();
+        long expires = ttl == PERMANENT || now + ttl < now ? PERMANENT : now + ttl;
+        File file = new File(directory, Hashing.sha1().hashString(key, StandardCharsets.UTF_8).toString() + FILE_SUFFIX);
+        try {
+            // write to a temporary file first, so readers never see partially written entries
+            File temp = File.createTempFile("entry", ".tmp", directory);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeUTF(key);
+                out.writeLong(expires);
+                out.write(body);
+            }
+            synchronized (this) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                CacheEntry previous = entries.put(key, new CacheEntry(file, file.length(), expires));
+                if (previous != null) totalBytes -= previous.size;
+                totalBytes += file.length();
+                evict();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * reads the body of an entry file
+     *
+     * @param key  the key the entry was stored with
+     * @param file the entry file
+     * @return the body, null if the file could not be read (e.g. it was removed in the meantime)
+     */
+    private byte[] readBody(String key, File file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            // entries with colliding file names are replaced, so the stored key has to match
+            if (!key.equals(in.readUTF())) return null;
+            in.readLong();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) body.write(buffer, 0, read);
+            return body.toByteArray();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * removes the least recently used entries until the total size is within the limit
+     */
+    private synchronized void evict() {
+        Iterator<Map.Entry<String, CacheEntry>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            CacheEntry entry = iterator.next().getValue();
+            iterator.remove();
+            totalBytes -= entry.size;
+            deleteFile(entry.file);
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * removes the entry for the key and its file
+     *
+     * @param key the key of the entry
+     */
+    private synchronized void remove(String key) {
+        CacheEntry entry = entries.remove(key);
+        if (entry == null) return;
+        totalBytes -= entry.size;
+        deleteFile(entry.file);
+    }
+
+    private void deleteFile(File file) {
+        if (file.exists() && !file.delete())
+            log.warn(String.format("Could not delete response cache file '%s'", file.getName()));
+    }
+
+    /**
+     * @return a summary of the cache hits, misses and size
+     */
+    public synchronized String getStatistics() {
+        long hits = this.hits.get();
+        long misses = this.misses.get();
+        return String.format("Response cache: %d hits, %d misses (%.1f%% hit rate), %d entries with %d of %d bytes, " +
+                        "%d evictions", hits, misses, hits + misses == 0 ? 0 : 100.0 * hits / (hits + misses),
+                entries.size(), totalBytes, maxBytes, evictions.get());
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * an entry of the cache stored in a file
+     */
+    private static class CacheEntry {
+        private final File file;
+        private final long size;
+        private final long expires;
+
+        CacheEntry(File file, long size, long expires) {
+            this.file = file;
+            this.size = size;
+            this.expires = expires;
+        }
+    }
+}
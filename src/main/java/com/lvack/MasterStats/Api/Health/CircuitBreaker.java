@@ -0,0 +1,157 @@
+package com.lvack.MasterStats.Api.Health;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * CircuitBreakerClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * circuit breaker for a riot api endpoint. the outcomes of the last requests are kept in a ring buffer,
+ * if too many of them failed or were slow the breaker opens and requests to the endpoint fail right away.
+ * after the open duration a few trial requests are allowed (half open), the breaker closes again
+ * if all of them succeed and opens again otherwise
+ */
+@Slf4j
+public class CircuitBreaker {
+    private static final int WINDOW_SIZE = 50;
+    private static final int MINIMUM_REQUESTS = 20;
+    private static final double FAILURE_RATE_THRESHOLD = 0.5;
+    private static final double SLOW_RATE_THRESHOLD = 0.5;
+    private static final long SLOW_REQUEST_MILLIS = 5000;
+    private static final long OPEN_DURATION_MILLIS = 30000;
+    private static final int TRIAL_REQUESTS = 5;
+    private final String name;
+    // outcomes of the last requests, 0: success, 1: failure, 2: slow success
+    private final byte[] outcomes = new byte[WINDOW_SIZE];
+    private int outcomeCount = 0;
+    private int nextOutcome = 0;
+    private int failures = 0;
+    private int slowRequests = 0;
+    private CircuitState state = CircuitState.CLOSED;
+    private long openedAt = 0;
+    private int trialsStarted = 0;
+    private int trialsSucceeded = 0;
+
+    /**
+     * @param name the name of the endpoint used in log messages
+     */
+    public CircuitBreaker(String name) {
+        this.name = name;
+    }
+
+    /**
+     * checks whether a request may be sent and counts it as trial request if the breaker is half open.
+     * an open breaker becomes half open once the open duration passed
+     *
+     * @return true if the request may be sent, false if it should fail right away
+     */
+    public synchronized boolean allowRequest() {
+        updateState();
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (trialsStarted >= TRIAL_REQUESTS) return false;
+                trialsStarted++;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * releases a request allowed by allowRequest which was not sent after all, so its outcome is never recorded.
+     * if the breaker is half open the trial request is given back, otherwise the trial requests
+     * could be used up without an outcome and the breaker would never close again
+     */
+    public synchronized void release() {
+        if (state == CircuitState.HALF_OPEN && trialsStarted > 0) trialsStarted--;
+    }
+
+    /**
+     * checks whether requests can be sent without counting a trial request
+     *
+     * @return false if the breaker is open or all trial requests were sent already
+     */
+    public synchronized boolean isAvailable() {
+        updateState();
+        return state == CircuitState.CLOSED || state == CircuitState.HALF_OPEN && trialsStarted < TRIAL_REQUESTS;
+    }
+
+    /**
+     * records the outcome of a request sent after allowRequest returned true
+     *
+     * @param success whether the request succeeded (a response other than a server error was received)
+     * @param millis  the time the request took in milliseconds
+     */
+    public synchronized void record(boolean success, long millis) {
+        boolean slow = millis > SLOW_REQUEST_MILLIS;
+        if (state == CircuitState.HALF_OPEN) {
+            if (!success || slow) {
+                open(String.format("trial request %s", success ? "was slow" : "failed"));
+            } else if (++trialsSucceeded >= TRIAL_REQUESTS) {
+                log.info(String.format("Closing circuit breaker of %s, all trial requests succeeded", name));
+                state = CircuitState.CLOSED;
+                resetOutcomes();
+            }
+            return;
+        }
+        if (state == CircuitState.OPEN) return;
+
+        // replace the oldest outcome in the ring buffer
+        if (outcomeCount == WINDOW_SIZE) {
+            if (outcomes[nextOutcome] == 1) failures--;
+            else if (outcomes[nextOutcome] == 2) slowRequests--;
+        } else outcomeCount++;
+        outcomes[nextOutcome] = (byte) (!success ? 1 : slow ? 2 : 0);
+        if (!success) failures++;
+        else if (slow) slowRequests++;
+        nextOutcome = (nextOutcome + 1) % WINDOW_SIZE;
+
+        if (outcomeCount < MINIMUM_REQUESTS) return;
+        double failureRate = (double) failures / outcomeCount;
+        double slowRate = (double) slowRequests / outcomeCount;
+        if (failureRate >= FAILURE_RATE_THRESHOLD || slowRate >= SLOW_RATE_THRESHOLD)
+            open(String.format("%.0f%% of the last %d requests failed and %.0f%% were slow",
+                    failureRate * 100, outcomeCount, slowRate * 100));
+    }
+
+    /**
+     * opens the breaker
+     *
+     * @param reason the reason logged
+     */
+    private void open(String reason) {
+        log.warn(String.format("Opening circuit breaker of %s for %d ms: %s", name, OPEN_DURATION_MILLIS, reason));
+        state = CircuitState.OPEN;
+        openedAt = System.currentTimeMillis();
+        resetOutcomes();
+    }
+
+    /**
+     * switches an open breaker to half open once the open duration passed
+     */
+    private void updateState() {
+        if (state == CircuitState.OPEN && System.currentTimeMillis() - openedAt >= OPEN_DURATION_MILLIS) {
+            log.info(String.format("Circuit breaker of %s is half open, sending %d trial requests", name, TRIAL_REQUESTS));
+            state = CircuitState.HALF_OPEN;
+            trialsStarted = 0;
+            trialsSucceeded = 0;
+        }
+    }
+
+    private void resetOutcomes() {
+        outcomeCount = 0;
+        nextOutcome = 0;
+        failures = 0;
+        slowRequests = 0;
+    }
+
+    public synchronized CircuitState getState() {
+        updateState();
+        return state;
+    }
+}
@@ -0,0 +1,15 @@
+package com.lvack.MasterStats.Api.Health;
+
+/**
+ * CircuitStateClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * states of a circuit breaker. closed: requests are sent normally, open: requests fail right away,
+ * half open: a few trial requests are sent to check whether the endpoint recovered
+ */
+public enum CircuitState {
+    CLOSED, OPEN, HALF_OPEN
+}
@@ -0,0 +1,100 @@
+package com.lvack.MasterStats.Api.Metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogramClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * lock free histogram of durations in milliseconds with logarithmic buckets (like a hdr histogram).
+ * values below 32 are counted exactly, larger values in 16 buckets per power of two,
+ * so percentiles are accurate to about 6% regardless of the value range
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+    // values are tracked up to 2^36 ms (about two years), larger values are counted in the last bucket
+    private static final int MAX_SHIFT = 32;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + MAX_SHIFT * HALF_SUB_BUCKET_COUNT;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * returns the index of the bucket a value is counted in
+     *
+     * @param value the value, not negative
+     * @return the bucket index
+     */
+    private static int getIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        if (shift > MAX_SHIFT) return BUCKET_COUNT - 1;
+        int subBucket = (int) (value >>> shift);
+        return SUB_BUCKET_COUNT + (shift - 1) * HALF_SUB_BUCKET_COUNT + subBucket - HALF_SUB_BUCKET_COUNT;
+    }
+
+    /**
+     * returns the highest value counted in a bucket
+     *
+     * @param index the bucket index
+     * @return the highest value of the bucket
+     */
+    private static long getHighestValue(int index) {
+        if (index < SUB_BUCKET_COUNT) return index;
+        int shift = (index - SUB_BUCKET_COUNT) / HALF_SUB_BUCKET_COUNT + 1;
+        long subBucket = (index - SUB_BUCKET_COUNT) % HALF_SUB_BUCKET_COUNT + HALF_SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * counts a value
+     *
+     * @param millis the value in milliseconds, negative values are counted as 0
+     */
+    public void record(long millis) {
+        long value = Math.max(0, millis);
+        counts.incrementAndGet(getIndex(value));
+        count.increment();
+        sum.add(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * returns the value below which the given percentage of values lie
+     *
+     * @param percentile the percentile (0 to 100)
+     * @return the highest value of the bucket containing the percentile, but at most the maximum value counted
+     */
+    public long getPercentile(double percentile) {
+        long total = count.sum();
+        if (total == 0) return 0;
+        long threshold = Math.max(1, (long) Math.ceil(total * Math.min(100, percentile) / 100));
+        long counted = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counted += counts.get(i);
+            if (counted >= threshold) return Math.min(getHighestValue(i), max.get());
+        }
+        return max.get();
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long total = count.sum();
+        return total == 0 ? 0 : (double) sum.sum() / total;
+    }
+}
@@ -0,0 +1,133 @@
+package com.lvack.MasterStats.Api.Metrics;
+
+import com.lvack.MasterStats.Api.StaticData.RiotEndpoint;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * RequestMetricsClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * metrics of the requests of one function of a sub api in one region: the time spent waiting for the rate limiter,
+ * the latency and status code of every attempt, the payload bytes read and the requests answered without
+ * sending them (from the response cache or rejected by the circuit breaker)
+ */
+public class RequestMetrics {
+    private final String subApi;
+    private final String method;
+    private final RiotEndpoint endpoint;
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    // maps status codes to the number of attempts answered with them, 0 for attempts without a response
+    private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    RequestMetrics(String subApi, String method, RiotEndpoint endpoint) {
+        this.subApi = subApi;
+        this.method = method;
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * @param millis the time a request waited for the rate limiter of its key
+     */
+    public void recordQueueWait(long millis) {
+        queueWait.record(millis);
+    }
+
+    /**
+     * counts an attempt of a request
+     *
+     * @param status the status code of the response, 0 if no response was received
+     * @param millis the time from sending the request until the response arrived
+     */
+    public void recordResponse(int status, long millis) {
+        latency.record(millis);
+        statusCounts.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    /**
+     * @param bytes the number of payload bytes read from a response
+     */
+    public void recordBytes(long bytes) {
+        this.bytes.add(bytes);
+    }
+
+    public void recordCacheHit() {
+        cacheHits.increment();
+    }
+
+    public void recordRejected() {
+        rejected.increment();
+    }
+
+    /**
+     * @return the number of attempts per status code, ordered by status code
+     */
+    public Map<Integer, Long> getStatusCounts() {
+        return statusCounts.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey,
+                e -> e.getValue().sum(), Long::sum, TreeMap::new));
+    }
+
+    /**
+     * @param status the status code
+     * @return the share (0 to 1) of attempts answered with the status code
+     */
+    public double getStatusRate(int status) {
+        long attempts = latency.getCount();
+        LongAdder statusCount = statusCounts.get(status);
+        return attempts == 0 || statusCount == null ? 0 : (double) statusCount.sum() / attempts;
+    }
+
+    /**
+     * @return a one line summary of the metrics
+     */
+    public String getSummary() {
+        return String.format("%s.%s (%s): %d attempts %s, %d cached, %d rejected, wait p50 %d p99 %d ms, " +
+                        "latency p50 %d p90 %d p99 %d max %d ms, %d bytes",
+                subApi, method, endpoint.name(), latency.getCount(), getStatusCounts(), cacheHits.sum(), rejected.sum(),
+                queueWait.getPercentile(50), queueWait.getPercentile(99), latency.getPercentile(50),
+                latency.getPercentile(90), latency.getPercentile(99), latency.getMax(), bytes.sum());
+    }
+
+    public String getSubApi() {
+        return subApi;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public RiotEndpoint getEndpoint() {
+        return endpoint;
+    }
+
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
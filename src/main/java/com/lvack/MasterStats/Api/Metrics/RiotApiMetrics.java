@@ -0,0 +1,56 @@
+package com.lvack.MasterStats.Api.Metrics;
+
+import com.lvack.MasterStats.Api.StaticData.RiotEndpoint;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * RiotApiMetricsClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * registry of the request metrics of all sub api functions and regions, collected since the application started
+ */
+@Slf4j
+public class RiotApiMetrics {
+    private static final Map<String, RequestMetrics> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * returns the metrics for a function of a sub api in a region, creating them if needed
+     *
+     * @param subApi   the name of the sub api
+     * @param method   the name of the function
+     * @param endpoint the region
+     * @return the metrics
+     */
+    public static RequestMetrics get(String subApi, String method, RiotEndpoint endpoint) {
+        return metrics.computeIfAbsent(subApi + "." + method + "@" + endpoint.name(),
+                k -> new RequestMetrics(subApi, method, endpoint));
+    }
+
+    /**
+     * @return the metrics of all functions and regions, ordered by sub api, function and region
+     */
+    public static List<RequestMetrics> getAll() {
+        return metrics.values().stream()
+                .sorted(Comparator.comparing(RequestMetrics::getSubApi).thenComparing(RequestMetrics::getMethod)
+                        .thenComparing(RequestMetrics::getEndpoint))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * logs a summary line for every function and region with requests
+     */
+    public static void logSummary() {
+        List<RequestMetrics> all = getAll();
+        log.info(String.format("Riot API metrics for %d functions and regions:", all.size()));
+        all.forEach(m -> log.info(" - " + m.getSummary()));
+    }
+}
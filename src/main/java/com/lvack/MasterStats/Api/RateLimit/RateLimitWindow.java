@@ -0,0 +1,105 @@
+package com.lvack.MasterStats.Api.RateLimit;
+
+/**
+ * RateLimitWindowClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * a single fixed rate limit window (e.g. 10 requests every 10 seconds) as used by the riot api.
+ * the window starts with the first request sent after the previous window ran out.
+ * not thread safe, synchronization is done by the RiotRateLimiter owning the window
+ */
+class RateLimitWindow {
+    private final long durationMillis;
+    private int limit;
+    private int count;
+    private long windowStart;
+
+    RateLimitWindow(int durationSeconds, int limit) {
+        this.durationMillis = durationSeconds * 1000L;
+        this.limit = limit;
+        this.count = 0;
+        this.windowStart = 0;
+    }
+
+    /**
+     * resets the window if its duration has passed
+     *
+     * @param now the current time in milliseconds
+     */
+    private void roll(long now) {
+        if (count > 0 && now - windowStart >= durationMillis) {
+            count = 0;
+            windowStart = 0;
+        }
+    }
+
+    /**
+     * calculates how long to wait until a request can be sent in this window
+     *
+     * @param now           the current time in milliseconds
+     * @param reservedShare share of the limit (0 to 1) which can not be used by the request
+     * @return the time to wait in milliseconds, 0 if a request can be sent right away
+     */
+    long getDelay(long now, double reservedShare) {
+        roll(now);
+        // at least one request per window is always allowed
+        int usable = Math.max(1, limit - (int) Math.ceil(limit * reservedShare));
+        if (count < usable) return 0;
+        return Math.max(1, windowStart + durationMillis - now);
+    }
+
+    /**
+     * calculates how much of the window is used
+     *
+     * @param now the current time in milliseconds
+     * @return the share of the limit (0 to 1) already used
+     */
+    double getUsage(long now) {
+        roll(now);
+        return limit == 0 ? 1 : Math.min(1, (double) count / limit);
+    }
+
+    /**
+     * counts a request in this window, starting the window if it is the first request
+     *
+     * @param now the current time in milliseconds
+     */
+    void reserve(long now) {
+        roll(now);
+        if (count == 0) windowStart = now;
+        count++;
+    }
+
+    /**
+     * updates the limit of the window with the limit reported by the api
+     *
+     * @param limit the new limit
+     */
+    void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * updates the request count with the count reported by the api. only increases the local count, as
+     * requests which are still in flight are not counted by the api yet
+     *
+     * @param count the request count reported by the api
+     * @param now   the current time in milliseconds
+     */
+    void updateCount(int count, long now) {
+        roll(now);
+        if (this.count == 0 && count > 0) windowStart = now;
+        this.count = Math.max(this.count, count);
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    int getCount() {
+        return count;
+    }
+}
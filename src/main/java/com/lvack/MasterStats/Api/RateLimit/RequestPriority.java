@@ -0,0 +1,16 @@
+package com.lvack.MasterStats.Api.RateLimit;
+
+/**
+ * RequestPriorityClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * priority classes of riot api requests used by the rate limiter.
+ * interactive requests (caused by users waiting for a page) are sent before background requests (crawler)
+ * and have a share of the rate limits reserved, background requests may only use the rest
+ */
+public enum RequestPriority {
+    INTERACTIVE, BACKGROUND
+}
@@ -0,0 +1,88 @@
+package com.lvack.MasterStats.Api.RateLimit;
+
+/**
+ * RiotApiKeyClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * an api key used for the requests to a region together with its own rate limiter,
+ * as riot tracks the rate limits per key and region. the state of the key (rejections, cooldown and probe)
+ * is managed by the key pool
+ */
+public class RiotApiKey {
+    private final String key;
+    private final String name;
+    private final RiotRateLimiter rateLimiter;
+    private volatile boolean disabled = false;
+    // number of requests rejected (401 or 403) in a row
+    private int rejections = 0;
+    // time until which a disabled key is not used, after that a single probe request is sent with it
+    private long disabledUntil = 0;
+    private long cooldown = 0;
+    private boolean probing = false;
+
+    /**
+     * @param key         the api key
+     * @param name        the name of the key used in log messages (the key itself should not be logged)
+     * @param rateLimiter the rate limiter tracking the limits of the key
+     */
+    RiotApiKey(String key, String name, RiotRateLimiter rateLimiter) {
+        this.key = key;
+        this.name = name;
+        this.rateLimiter = rateLimiter;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RiotRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public boolean isDisabled() {
+        return disabled;
+    }
+
+    void setDisabled(boolean disabled) {
+        this.disabled = disabled;
+    }
+
+    int getRejections() {
+        return rejections;
+    }
+
+    void setRejections(int rejections) {
+        this.rejections = rejections;
+    }
+
+    long getDisabledUntil() {
+        return disabledUntil;
+    }
+
+    void setDisabledUntil(long disabledUntil) {
+        this.disabledUntil = disabledUntil;
+    }
+
+    long getCooldown() {
+        return cooldown;
+    }
+
+    void setCooldown(long cooldown) {
+        this.cooldown = cooldown;
+    }
+
+    boolean isProbing() {
+        return probing;
+    }
+
+    void setProbing(boolean probing) {
+        this.probing = probing;
+    }
+}
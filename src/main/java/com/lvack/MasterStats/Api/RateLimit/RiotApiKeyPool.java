@@ -0,0 +1,203 @@
+package com.lvack.MasterStats.Api.RateLimit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RiotApiKeyPoolClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * pool of the api keys used for a region. every request uses the key with the most headroom
+ * (the shortest wait for its rate limiter, then the least used limits), so the available
+ * throughput grows with the number of keys. throttled keys (429) are avoided until their rate limiter is unblocked.
+ * a key is only taken out of rotation after several requests in a row were rejected (401 or 403), as a single
+ * rejection might be caused by the endpoint instead of the key. a disabled key is not used during its cooldown,
+ * after that a single probe request is sent with it: if it is accepted the key is used again, otherwise the key
+ * is disabled again with a doubled cooldown. if all keys are disabled, requests fail instead of using them
+ */
+@Slf4j
+public class RiotApiKeyPool {
+    // number of rejections in a row after which a key is disabled
+    private static final int REJECTIONS_TO_DISABLE = 3;
+    private static final long INITIAL_COOLDOWN_MILLIS = 5 * 60 * 1000;
+    private static final long MAX_COOLDOWN_MILLIS = 60 * 60 * 1000;
+    // delay returned while no key can be used because the probes of all keys are in progress
+    private static final long PROBE_WAIT_MILLIS = 1000;
+    private final List<RiotApiKey> keys = new ArrayList<>();
+
+    /**
+     * creates a pool with a rate limiter for every key
+     *
+     * @param apiKeys          the api keys
+     * @param limits           the initial rate limits of every key in the riot header format (limit:seconds)
+     * @param interactiveShare share (0 to 1) of every window reserved for interactive requests
+     */
+    public RiotApiKeyPool(List<String> apiKeys, String limits, double interactiveShare) {
+        for (int i = 0; i < apiKeys.size(); i++) {
+            keys.add(new RiotApiKey(apiKeys.get(i), String.format("#%d", i + 1),
+                    new RiotRateLimiter(limits, interactiveShare)));
+        }
+    }
+
+    /**
+     * selects the key with the most headroom for a request of the given priority, blocks until
+     * its rate limiter allows the request and returns the key
+     *
+     * @param priority the priority of the request
+     * @return the key to send the request with, null if all keys are disabled or if interrupted while waiting
+     * for the rate limiter (the interrupt flag is set)
+     */
+    public RiotApiKey acquire(RequestPriority priority) {
+        RiotApiKey key;
+        synchronized (this) {
+            key = selectKey(priority, true);
+        }
+        if (key == null || key.getRateLimiter().acquire(priority)) return key;
+        synchronized (this) {
+            // the probe of a disabled key is only started once the request is sent
+            if (key.isDisabled()) key.setProbing(false);
+        }
+        return null;
+    }
+
+    /**
+     * selects the key with the most headroom for a request of the given priority and returns it
+     * if its rate limiter allows the request right away, without waiting
+     *
+     * @param priority the priority of the request
+     * @return the key to send the request with, null if no key allows the request right away or all keys are disabled
+     */
+    public synchronized RiotApiKey tryAcquire(RequestPriority priority) {
+        RiotApiKey key = selectKey(priority, true);
+        if (key == null) return null;
+        if (key.getRateLimiter().tryAcquire(priority)) return key;
+        // the probe of a disabled key is only started once the request is sent
+        if (key.isDisabled()) key.setProbing(false);
+        return null;
+    }
+
+    /**
+     * calculates how long a request of the given priority would have to wait for the key with the most headroom
+     *
+     * @param priority the priority of the request
+     * @return the time to wait in milliseconds, 0 or less if a request can be sent right away. if all keys
+     * are disabled, the time until the cooldown of the next key ends
+     */
+    public synchronized long getDelay(RequestPriority priority) {
+        RiotApiKey key = selectKey(priority, false);
+        if (key != null) return key.getRateLimiter().getDelay(priority);
+        long now = System.currentTimeMillis();
+        return keys.stream().filter(k -> !k.isProbing()).mapToLong(k -> k.getDisabledUntil() - now)
+                .min().orElse(PROBE_WAIT_MILLIS);
+    }
+
+    /**
+     * @return true if a key can be used right away (an enabled key or a disabled key whose cooldown ended)
+     */
+    public synchronized boolean hasUsableKey() {
+        long now = System.currentTimeMillis();
+        return keys.stream().anyMatch(k -> isUsable(k, now));
+    }
+
+    private static boolean isUsable(RiotApiKey key, long now) {
+        return !key.isDisabled() || (!key.isProbing() && now >= key.getDisabledUntil());
+    }
+
+    /**
+     * selects the usable key with the shortest delay for the priority and the lowest usage.
+     * disabled keys are only used once their cooldown ended, for a single probe request
+     *
+     * @param priority   the priority of the request
+     * @param startProbe true to start the probe of the key if a disabled key is selected
+     * @return the selected key, null if no key can be used
+     */
+    private RiotApiKey selectKey(RequestPriority priority, boolean startProbe) {
+        long now = System.currentTimeMillis();
+        RiotApiKey best = null;
+        long bestDelay = 0;
+        double bestUsage = 0;
+        for (RiotApiKey key : keys) {
+            if (!isUsable(key, now)) continue;
+            long delay = Math.max(0, key.getRateLimiter().getDelay(priority));
+            double usage = key.getRateLimiter().getUsage();
+            if (best == null || delay < bestDelay || (delay == bestDelay && usage < bestUsage)) {
+                best = key;
+                bestDelay = delay;
+                bestUsage = usage;
+            }
+        }
+        if (best != null && best.isDisabled() && startProbe) {
+            best.setProbing(true);
+            log.info(String.format("Sending a probe request with disabled API key %s", best.getName()));
+        }
+        return best;
+    }
+
+    /**
+     * records the status of a response received with a key. rejections (401 or 403) are counted and the key is
+     * disabled once it was rejected several times in a row, any other response resets the count.
+     * the response of a probe request enables the key again or disables it again with a doubled cooldown
+     *
+     * @param key    the key the request was sent with
+     * @param status the status code of the response, 0 if no response was received
+     * @return true if the key was disabled by this rejection (or before) and the request should be sent
+     * again with another key, as other keys can still be used
+     */
+    public synchronized boolean recordResponse(RiotApiKey key, int status) {
+        if (status != 401 && status != 403) {
+            if (status == 0) {
+                // no response, the probe has to be sent again
+                if (key.isDisabled()) key.setProbing(false);
+                return false;
+            }
+            key.setRejections(0);
+            if (key.isDisabled() && key.isProbing()) {
+                key.setDisabled(false);
+                key.setProbing(false);
+                key.setCooldown(0);
+                log.info(String.format("API key %s was accepted by the probe request and is used again, %d of %d keys used",
+                        key.getName(), getEnabledKeyCount(), keys.size()));
+            }
+            return false;
+        }
+
+        if (key.isDisabled()) {
+            // a rejected probe disables the key again, other requests were sent before the key was disabled
+            if (key.isProbing()) disable(key, status, Math.min(MAX_COOLDOWN_MILLIS, key.getCooldown() * 2));
+            return hasUsableKey();
+        }
+        key.setRejections(key.getRejections() + 1);
+        if (key.getRejections() < REJECTIONS_TO_DISABLE) return false;
+        disable(key, status, INITIAL_COOLDOWN_MILLIS);
+        return hasUsableKey();
+    }
+
+    /**
+     * takes a key out of rotation for a cooldown
+     *
+     * @param key      the rejected key
+     * @param status   the status code the api rejected the key with
+     * @param cooldown the time in milliseconds until the next probe request
+     */
+    private void disable(RiotApiKey key, int status, long cooldown) {
+        key.setDisabled(true);
+        key.setProbing(false);
+        key.setRejections(0);
+        key.setCooldown(cooldown);
+        key.setDisabledUntil(System.currentTimeMillis() + cooldown);
+        log.warn(String.format("API key %s was rejected with status %d and is not used for %d minutes, %d of %d keys used",
+                key.getName(), status, cooldown / 60000, getEnabledKeyCount(), keys.size()));
+    }
+
+    /**
+     * @return the number of keys in rotation
+     */
+    public int getEnabledKeyCount() {
+        return (int) keys.stream().filter(k -> !k.isDisabled()).count();
+    }
+}
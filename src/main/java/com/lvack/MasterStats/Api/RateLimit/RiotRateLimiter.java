@@ -0,0 +1,191 @@
+package com.lvack.MasterStats.Api.RateLimit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.ws.rs.core.Response;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * RiotRateLimiterClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * rate limiter enforcing multiple riot api rate limit windows (e.g. 10 seconds and 10 minutes) at once.
+ * the limits and request counts are updated from the rate limit headers of every response.
+ * requests are acquired with a priority: a share of every window is reserved for interactive requests
+ * and background requests wait while interactive requests are waiting
+ */
+@Slf4j
+public class RiotRateLimiter {
+    public static final String DEVELOPMENT_LIMITS = "10:10,500:600";
+    public static final String PRODUCTION_LIMITS = "3000:10,180000:600";
+    public static final double DEFAULT_INTERACTIVE_SHARE = 0.2;
+    private static final String LIMIT_HEADER = "X-App-Rate-Limit";
+    private static final String[] COUNT_HEADERS = new String[]{"X-App-Rate-Limit-Count", "X-Rate-Limit-Count"};
+    // maps the window duration in seconds to the window
+    private final Map<Integer, RateLimitWindow> windows = new TreeMap<>();
+    // share of every window background requests are not allowed to use
+    private final double interactiveShare;
+    // number of interactive requests currently waiting for capacity
+    private int interactiveWaiting = 0;
+    // time until which no requests are allowed (set after the api rejected requests)
+    private long blockedUntil = 0;
+
+    /**
+     * creates a rate limiter with the initial limits given
+     *
+     * @param limits           comma separated list of limits in the riot header format (limit:seconds)
+     * @param interactiveShare share (0 to 1) of every window reserved for interactive requests
+     */
+    public RiotRateLimiter(String limits, double interactiveShare) {
+        this.interactiveShare = Math.max(0, Math.min(1, interactiveShare));
+        parseHeader(limits).forEach((seconds, limit) -> windows.put(seconds, new RateLimitWindow(seconds, limit)));
+    }
+
+    /**
+     * parses a rate limit header (e.g. "10:10,500:600") to a map of window durations and values
+     *
+     * @param header the header value
+     * @return a map with the window durations in seconds as keys and the values as values
+     */
+    private static Map<Integer, Integer> parseHeader(String header) {
+        Map<Integer, Integer> values = new TreeMap<>();
+        if (header == null) return values;
+        for (String entry : header.split(",")) {
+            String[] split = entry.trim().split(":");
+            if (split.length != 2) continue;
+            try {
+                values.put(Integer.valueOf(split[1]), Integer.valueOf(split[0]));
+            } catch (NumberFormatException e) {
+                log.warn(String.format("Invalid rate limit header entry '%s'", entry));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * blocks until a request of the given priority can be sent in all windows and counts the request in all windows.
+     * interactive requests may use the whole window, background requests only the part not reserved for
+     * interactive requests and only if no interactive requests are waiting
+     *
+     * @param priority the priority of the request
+     * @return true if the request was counted and can be sent, false if interrupted while waiting
+     * (the request was not counted and must not be sent, the interrupt flag is set)
+     */
+    public synchronized boolean acquire(RequestPriority priority) {
+        boolean interactive = priority == RequestPriority.INTERACTIVE;
+        double share = interactive ? 0 : interactiveShare;
+        if (interactive) interactiveWaiting++;
+        try {
+            while (true) {
+                long now = System.currentTimeMillis();
+                long delay = calculateDelay(now, share);
+                if (delay <= 0 && (interactive || interactiveWaiting == 0)) {
+                    windows.values().forEach(w -> w.reserve(now));
+                    return true;
+                }
+                try {
+                    // background requests waiting for interactive requests are woken up by notifyAll
+                    if (delay > 0) wait(delay);
+                    else wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        } finally {
+            if (interactive && --interactiveWaiting == 0) notifyAll();
+        }
+    }
+
+    /**
+     * counts a request of the given priority in all windows if it can be sent right away, without waiting.
+     * background requests are not allowed while interactive requests are waiting
+     *
+     * @param priority the priority of the request
+     * @return true if the request was counted and can be sent
+     */
+    public synchronized boolean tryAcquire(RequestPriority priority) {
+        boolean interactive = priority == RequestPriority.INTERACTIVE;
+        long now = System.currentTimeMillis();
+        if (calculateDelay(now, interactive ? 0 : interactiveShare) > 0 || (!interactive && interactiveWaiting > 0))
+            return false;
+        windows.values().forEach(w -> w.reserve(now));
+        return true;
+    }
+
+    /**
+     * calculates how long a request of the given priority would have to wait without counting a request
+     *
+     * @param priority the priority of the request
+     * @return the time to wait in milliseconds, 0 or less if a request can be sent right away
+     */
+    public synchronized long getDelay(RequestPriority priority) {
+        return calculateDelay(System.currentTimeMillis(), priority == RequestPriority.INTERACTIVE ? 0 : interactiveShare);
+    }
+
+    /**
+     * @return the share (0 to 1) of the most used window which is already used
+     */
+    public synchronized double getUsage() {
+        long now = System.currentTimeMillis();
+        return windows.values().stream().mapToDouble(w -> w.getUsage(now)).max().orElse(0);
+    }
+
+    /**
+     * calculates how long to wait until a request can be sent in all windows
+     *
+     * @param now           the current time in milliseconds
+     * @param reservedShare share of the limits which can not be used by the request
+     * @return the time to wait in milliseconds, 0 or less if a request can be sent right away
+     */
+    private long calculateDelay(long now, double reservedShare) {
+        long delay = windows.values().stream().mapToLong(w -> w.getDelay(now, reservedShare)).max().orElse(0);
+        return Math.max(delay, blockedUntil - now);
+    }
+
+    /**
+     * blocks all requests for the given time, used when the api rejected a request (429)
+     *
+     * @param millis the time to block in milliseconds
+     */
+    public synchronized void blockFor(long millis) {
+        blockedUntil = Math.max(blockedUntil, System.currentTimeMillis() + millis);
+    }
+
+    /**
+     * updates limits and request counts from the rate limit headers of a response.
+     * unknown windows reported by the api are added
+     *
+     * @param response the response to read the headers from
+     */
+    public synchronized void update(Response response) {
+        if (response == null) return;
+        long now = System.currentTimeMillis();
+
+        parseHeader(response.getHeaderString(LIMIT_HEADER)).forEach((seconds, limit) -> {
+            RateLimitWindow window = windows.get(seconds);
+            if (window == null) {
+                log.info(String.format("Adding rate limit window of %d requests every %d seconds", limit, seconds));
+                windows.put(seconds, new RateLimitWindow(seconds, limit));
+            } else if (window.getLimit() != limit) {
+                log.info(String.format("Updating rate limit window of %d seconds from %d to %d requests",
+                        seconds, window.getLimit(), limit));
+                window.setLimit(limit);
+            }
+        });
+
+        for (String countHeader : COUNT_HEADERS) {
+            parseHeader(response.getHeaderString(countHeader)).forEach((seconds, count) -> {
+                RateLimitWindow window = windows.get(seconds);
+                if (window != null) window.updateCount(count, now);
+            });
+        }
+
+        // limits might have been raised, so waiting threads should check again
+        notifyAll();
+    }
+}
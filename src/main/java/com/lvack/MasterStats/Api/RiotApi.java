@@ -1,11 +1,13 @@
 package com.lvack.MasterStats.Api;
 
-import com.google.common.util.concurrent.RateLimiter;
 import com.lvack.MasterStats.Api.Apis.*;
+import com.lvack.MasterStats.Api.Cache.ResponseCache;
+import com.lvack.MasterStats.Api.Health.CircuitBreaker;
+import com.lvack.MasterStats.Api.RateLimit.RequestPriority;
+import com.lvack.MasterStats.Api.RateLimit.RiotApiKeyPool;
 import com.lvack.MasterStats.Api.StaticData.RiotEndpoint;
 
 import javax.ws.rs.client.Client;
-import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.MediaType;
 
@@ -16,10 +18,12 @@ import javax.ws.rs.core.MediaType;
  */
 
 public class RiotApi {
-    private final String apiKey;
     private final Client client;
     private final RiotEndpoint endpoint;
-    private final RateLimiter rateLimiter;
+    private final RiotApiKeyPool keyPool;
+    private final ResponseCache responseCache;
+    private final CircuitBreaker circuitBreaker;
+    private final RequestPriority priority;
     private SummonerApi summonerApi;
     private ChampionMasteryApi championMasteryApi;
     private StaticDataApi staticDataApi;
@@ -28,35 +32,61 @@ public class RiotApi {
     private MatchListApi matchListApi;
 
     /**
-     * create a rate limiter and a jersey client to manage request
+     * creates a riot api sending its requests with the given priority
      *
-     * @param endpoint the endpoint to send the requests to
-     * @param apiKey   the api key to use
+     * @param endpoint       the endpoint to send the requests to
+     * @param keyPool        the api keys of the endpoint with their rate limiters (shared by the apis of all priorities)
+     * @param client         the jersey client used to send the requests (shared by all regions)
+     * @param priority       the priority used to acquire requests from the rate limiters
+     * @param responseCache  the cache for the responses of slow-changing endpoints (shared by all regions)
+     * @param circuitBreaker the circuit breaker of the endpoint (shared by the apis of all priorities)
      */
-    public RiotApi(RiotEndpoint endpoint, String apiKey, double rate) {
+    public RiotApi(RiotEndpoint endpoint, RiotApiKeyPool keyPool, Client client, RequestPriority priority,
+                   ResponseCache responseCache, CircuitBreaker circuitBreaker) {
         this.endpoint = endpoint;
-        this.apiKey = apiKey;
-        rateLimiter = RateLimiter.create(rate);
-        client = ClientBuilder.newBuilder()
-                .build();
+        this.client = client;
+        this.keyPool = keyPool;
+        this.responseCache = responseCache;
+        this.circuitBreaker = circuitBreaker;
+        this.priority = priority;
     }
 
     /**
-     * returns a async invoke provider for a given target which set api key, region and platform id for the target
+     * returns a async invoke provider for a given target which sets the api key passed to the provider,
+     * region and platform id for the target
      *
      * @param target the target to make the requests to
      * @return a async invoke provider for a given target
      */
     public RiotApiResponse.AsyncInvokerProvider prepareRequest(WebTarget target) {
-        return () -> {
-            WebTarget webTarget = target
-                    .queryParam("api_key", apiKey)
-                    .resolveTemplate("region", endpoint.name().toLowerCase())
-                    .resolveTemplate("platformId", endpoint.getPlatformId());
+        return apiKey -> {
+            WebTarget webTarget = resolveTarget(target).queryParam("api_key", apiKey);
             return webTarget.request().accept(MediaType.APPLICATION_JSON_TYPE).async();
         };
     }
 
+    /**
+     * returns the key for the response cache of a given target, the uri of the target without the api key
+     *
+     * @param target the target to make the requests to
+     * @return the cache key
+     */
+    public String getCacheKey(WebTarget target) {
+        return resolveTarget(target).getUri().toString();
+    }
+
+    /**
+     * sets region and platform id for a given target
+     *
+     * @param target the target to make the requests to
+     * @return the target with region and platform id set
+     */
+    private WebTarget resolveTarget(WebTarget target) {
+        return target
+                .resolveTemplate("region", endpoint.name().toLowerCase())
+                .resolveTemplate("platformId", endpoint.getPlatformId());
+    }
+
 
     /**
      * creates a new web target for the endpoint
@@ -67,8 +97,24 @@ public class RiotApi {
         return client.target(endpoint.getHost());
     }
 
-    public RateLimiter getRateLimiter() {
-        return rateLimiter;
+    public RiotEndpoint getEndpoint() {
+        return endpoint;
+    }
+
+    public RiotApiKeyPool getKeyPool() {
+        return keyPool;
+    }
+
+    public RequestPriority getPriority() {
+        return priority;
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
     }
 
     /**
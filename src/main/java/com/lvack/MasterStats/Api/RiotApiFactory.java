@@ -1,12 +1,19 @@
 package com.lvack.MasterStats.Api;
 
+import com.lvack.MasterStats.Api.Cache.ResponseCache;
+import com.lvack.MasterStats.Api.Health.CircuitBreaker;
+import com.lvack.MasterStats.Api.RateLimit.RequestPriority;
+import com.lvack.MasterStats.Api.RateLimit.RiotApiKeyPool;
+import com.lvack.MasterStats.Api.RateLimit.RiotRateLimiter;
 import com.lvack.MasterStats.Api.StaticData.RiotEndpoint;
+import com.lvack.MasterStats.Api.Transport.RiotTransport;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
-import java.util.Properties;
+import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * RiotApiFactoryClass for MasterStats
@@ -15,37 +22,108 @@ import java.util.Properties;
  */
 
 /**
- * Class holding and creating the instance of the riot api (one per region)
+ * Class holding and creating the instance of the riot api (one per region and priority,
+ * the instances of a region share the api key pool with the rate limiters of the keys)
  */
 @Slf4j
 public class RiotApiFactory {
-    private static final HashMap<RiotEndpoint, RiotApi> riotApis = new HashMap<>();
-    private static String apiKey;
+    private static final HashMap<RiotEndpoint, Map<RequestPriority, RiotApi>> riotApis = new HashMap<>();
+    private static final HashMap<RiotEndpoint, RiotApiKeyPool> keyPools = new HashMap<>();
+    private static final HashMap<RiotEndpoint, CircuitBreaker> circuitBreakers = new HashMap<>();
+    private static List<String> apiKeys;
     private static boolean devKey = false;
+    private static Properties properties;
+    private static RiotTransport transport;
+    private static ResponseCache responseCache;
 
     /**
-     * creates a new riot api instance with the given region if none exists for the region
-     * otherwise just returns the instance for the given region
+     * returns the riot api instance for the given region sending interactive requests
      *
      * @param endpoint the endpoint the riot api instance should use
      * @return the riot api instance
      */
     public static RiotApi getApi(RiotEndpoint endpoint) {
-        if (riotApis.containsKey(endpoint)) return riotApis.get(endpoint);
-        log.info(String.format("Building Riot API for %s", endpoint.name()));
-        RiotApi riotApi = new RiotApi(endpoint, getApiKey(), isDevKey() ? 0.8 : 150);
-        riotApis.put(endpoint, riotApi);
+        return getApi(endpoint, RequestPriority.INTERACTIVE);
+    }
+
+    /**
+     * creates a new riot api instance with the given region and priority if none exists for them
+     * otherwise just returns the instance for the given region and priority
+     *
+     * @param endpoint the endpoint the riot api instance should use
+     * @param priority the priority of the requests sent by the riot api instance
+     * @return the riot api instance
+     */
+    public static synchronized RiotApi getApi(RiotEndpoint endpoint, RequestPriority priority) {
+        Map<RequestPriority, RiotApi> apis = riotApis.computeIfAbsent(endpoint, e -> new EnumMap<>(RequestPriority.class));
+        if (apis.containsKey(priority)) return apis.get(priority);
+        log.info(String.format("Building Riot API for %s with %s priority", endpoint.name(), priority.name()));
+        RiotApi riotApi = new RiotApi(endpoint, getKeyPool(endpoint), getTransport().getClient(), priority,
+                getResponseCache(), getCircuitBreaker(endpoint));
+        apis.put(priority, riotApi);
         return riotApi;
     }
 
     /**
-     * loads the api key if needed and returns it
+     * creates the api key pool (with a rate limiter per key) for the given region if needed and returns it
+     *
+     * @param endpoint the endpoint the key pool is used for
+     * @return the key pool
+     */
+    private static RiotApiKeyPool getKeyPool(RiotEndpoint endpoint) {
+        return keyPools.computeIfAbsent(endpoint, e -> new RiotApiKeyPool(getApiKeys(),
+                isDevKey() ? RiotRateLimiter.DEVELOPMENT_LIMITS : RiotRateLimiter.PRODUCTION_LIMITS,
+                Double.parseDouble(properties.getProperty("interactiveShare",
+                        String.valueOf(RiotRateLimiter.DEFAULT_INTERACTIVE_SHARE)))));
+    }
+
+    /**
+     * creates the circuit breaker for the given region if needed and returns it
+     *
+     * @param endpoint the endpoint the circuit breaker is used for
+     * @return the circuit breaker
+     */
+    public static synchronized CircuitBreaker getCircuitBreaker(RiotEndpoint endpoint) {
+        return circuitBreakers.computeIfAbsent(endpoint, e -> new CircuitBreaker(e.name()));
+    }
+
+    /**
+     * creates the http transport shared by all regions if needed and returns it
      *
-     * @return the api key
+     * @return the transport
      */
-    private static String getApiKey() {
-        if (apiKey == null || apiKey.length() == 0) loadApiKey();
-        return apiKey;
+    public static synchronized RiotTransport getTransport() {
+        if (transport == null) {
+            if (properties == null) loadApiKey();
+            transport = new RiotTransport(properties);
+        }
+        return transport;
+    }
+
+    /**
+     * creates the response cache shared by all regions if needed and returns it
+     *
+     * @return the response cache
+     */
+    public static synchronized ResponseCache getResponseCache() {
+        if (responseCache == null) {
+            if (properties == null) loadApiKey();
+            File directory = new File(properties.getProperty("responseCacheDirectory",
+                    new File(System.getProperty("java.io.tmpdir"), "masterStatsResponseCache").getPath()));
+            long size = Long.parseLong(properties.getProperty("responseCacheSize", "512"));
+            responseCache = new ResponseCache(directory, size * 1024 * 1024);
+        }
+        return responseCache;
+    }
+
+    /**
+     * loads the api keys if needed and returns them
+     *
+     * @return the api keys
+     */
+    private static List<String> getApiKeys() {
+        if (apiKeys == null || apiKeys.isEmpty()) loadApiKey();
+        return apiKeys;
     }
 
     /**
@@ -54,15 +132,16 @@ public class RiotApiFactory {
      * @return whether the api key is a development key
      */
     private static boolean isDevKey() {
-        if (apiKey == null || apiKey.length() == 0) loadApiKey();
+        if (apiKeys == null || apiKeys.isEmpty()) loadApiKey();
         return devKey;
     }
 
     /**
-     * loads api key and key type from the api.properties file
+     * loads api keys, key type and transport settings from the api.properties file.
+     * the keys are read from the comma separated apiKeys property, or the apiKey property if it is not set
      */
     private static void loadApiKey() {
-        Properties properties = new Properties();
+        properties = new Properties();
         InputStream in = RiotApiFactory.class.getClassLoader().getResourceAsStream("api.properties");
         try {
             properties.load(in);
@@ -74,9 +153,18 @@ public class RiotApiFactory {
         } catch (IOException e) {
             e.printStackTrace();
         }
-        apiKey = properties.getProperty("apiKey");
+        String keys = properties.getProperty("apiKeys", properties.getProperty("apiKey", ""));
+        apiKeys = Arrays.stream(keys.split(",")).map(String::trim).filter(k -> k.length() > 0)
+                .collect(Collectors.toList());
+        if (apiKeys.isEmpty()) log.error("No API key found in api.properties");
+        String hostOverride = properties.getProperty("hostOverride");
+        if (hostOverride != null && hostOverride.trim().length() > 0) {
+            RiotEndpoint.setHostOverride(hostOverride.trim());
+            log.warn(String.format("Sending Riot API requests to %s instead of the Riot API", hostOverride.trim()));
+        }
         String devKey = properties.getProperty("devKey", "false");
         RiotApiFactory.devKey = "true".equals(devKey.toLowerCase());
-        log.info(String.format("Using API key as a %s key", RiotApiFactory.devKey ? "DEVELOPMENT" : "PRODUCTION"));
+        log.info(String.format("Using %d API key(s) as %s keys", apiKeys.size(),
+                RiotApiFactory.devKey ? "DEVELOPMENT" : "PRODUCTION"));
     }
 }
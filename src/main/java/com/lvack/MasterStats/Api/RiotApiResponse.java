@@ -1,14 +1,27 @@
 package com.lvack.MasterStats.Api;
 
-import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.io.CountingInputStream;
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.lvack.MasterStats.Api.Cache.ResponseCache;
+import com.lvack.MasterStats.Api.Health.CircuitBreaker;
+import com.lvack.MasterStats.Api.Metrics.RequestMetrics;
+import com.lvack.MasterStats.Api.RateLimit.RequestPriority;
+import com.lvack.MasterStats.Api.RateLimit.RiotApiKey;
+import com.lvack.MasterStats.Api.RateLimit.RiotApiKeyPool;
 import com.lvack.MasterStats.Util.GsonProvider;
+import lombok.extern.slf4j.Slf4j;
 
 import javax.ws.rs.client.AsyncInvoker;
+import javax.ws.rs.client.InvocationCallback;
 import javax.ws.rs.core.Response;
+import java.io.*;
 import java.lang.reflect.Type;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * RiotApiResponseClass for MasterStats
@@ -18,92 +31,392 @@ import java.util.concurrent.Future;
 
 /**
  * class representing a response by the riot api
+ * the response is a CompletableFuture completed with the response object once the request finished,
+ * so multiple requests can be sent at once and combined without blocking a thread per request.
+ * the response object is null if the request was not successful (status code other than 200),
+ * the future is only completed exceptionally if no response was received at all.
+ * failed requests are sent again as defined by the retry policy, requests rejected because of the api key
+ * are sent again right away with another key of the key pool once the key pool disabled the key. if all keys
+ * of the key pool are disabled, the response is completed with null right away. requests sent again never wait for the
+ * rate limiter on the threads of the retry executor, they are rescheduled until a key is available.
+ * if a response cache is set, cached responses are used instead of sending the request and
+ * successful responses are stored in the cache.
+ * if the circuit breaker of the endpoint is open, the response is completed with null right away.
+ * if metrics are set, the wait for the rate limiter and the latency, status and size of every attempt are recorded
  *
  * @param <T> type of the response object
  */
-public class RiotApiResponse<T> {
+@Slf4j
+public class RiotApiResponse<T> extends CompletableFuture<T> {
     private static final Gson GSON = GsonProvider.getGSON();
-    private final Class<T> clazz;
-    private final Type type;
+    // time to wait before trying again to acquire a key for a retry, if the rate limiter does not give a delay
+    private static final long MIN_ACQUIRE_DELAY_MILLIS = 10;
+    // executor used to send retries once their delay has passed, its threads never wait for a rate limiter
+    private static final ScheduledExecutorService RETRY_EXECUTOR = Executors.newScheduledThreadPool(2, r -> {
+        Thread thread = new Thread(r);
+        thread.setName("riotApiRetryThread");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final EntityReader<T> entityReader;
     private final AsyncInvokerProvider builder;
-    private RateLimiter rateLimiter;
-    private Future<Response> responseFuture;
-    private Response response;
+    private RiotApiKeyPool keyPool;
+    private RiotRetryPolicy retryPolicy = RiotRetryPolicy.DEFAULT;
+    private RequestPriority priority = RequestPriority.INTERACTIVE;
+    private ResponseCache responseCache;
+    private String cacheKey;
+    private long cacheTtl;
+    private CircuitBreaker circuitBreaker;
+    private RequestMetrics metrics;
+    private volatile RiotApiKey key;
+    private volatile Response response;
+    private volatile int status;
+    private volatile int attempts;
+    private volatile long sendTime;
 
     public RiotApiResponse(AsyncInvokerProvider builder, Type type) {
-        this.type = type;
-        this.clazz = null;
-        response = null;
-        this.builder = builder;
+        this(builder, reader -> GSON.fromJson(reader, type));
     }
 
     public RiotApiResponse(AsyncInvokerProvider builder, Class<T> clazz) {
-        this.type = null;
-        this.clazz = clazz;
+        this(builder, reader -> GSON.fromJson(reader, clazz));
+    }
+
+    /**
+     * creates a response which is not sent itself but completed with complete(object, status),
+     * e.g. with the part of a batched response requested by a caller
+     */
+    public RiotApiResponse() {
+        this(null, (EntityReader<T>) null);
+    }
+
+    /**
+     * creates a response read by the given reader, used to only read the parts of large responses which are needed
+     *
+     * @param builder      the provider for the async invokers to send the request
+     * @param entityReader the reader reading the response object from the response's json stream
+     */
+    public RiotApiResponse(AsyncInvokerProvider builder, EntityReader<T> entityReader) {
+        this.entityReader = entityReader;
         this.builder = builder;
+        response = null;
     }
 
     /**
-     * acquires read from the rate limiter (if provided) generates a new async invoker,
-     * invokes it and stores future response
+     * completes the response with the cached response if it is cached or with null if the circuit breaker
+     * (if provided) does not allow requests, otherwise acquires a key from
+     * the key pool (if provided) with the priority of the request and sends the request.
+     * blocks only while waiting for the rate limiter of the key, the response is handled once it arrives.
+     * if interrupted while waiting, the request is not sent and the response is completed with null
      */
     public void sendGet() {
-        if (rateLimiter != null) rateLimiter.acquire();
-        responseFuture = builder.get().get();
+        if (completeWithoutRequest()) return;
+        if (keyPool != null) {
+            long waitStart = System.currentTimeMillis();
+            RiotApiKey acquired = keyPool.acquire(priority);
+            if (acquired == null) {
+                completeWithoutKey();
+                return;
+            }
+            key = acquired;
+            if (metrics != null) metrics.recordQueueWait(System.currentTimeMillis() - waitStart);
+        }
+        send();
+    }
+
+    /**
+     * sends the request again from the retry executor like sendGet, but without blocking the thread
+     * while waiting for the rate limiter
+     */
+    private void resend() {
+        if (completeWithoutRequest()) return;
+        if (keyPool == null) send();
+        else acquireAndSend(System.currentTimeMillis());
+    }
+
+    /**
+     * acquires a key from the key pool without waiting and sends the request, if no key is available
+     * right away, this is scheduled again once the rate limiter of the best key allows the request
+     *
+     * @param waitStart the time the request started waiting for a key
+     */
+    private void acquireAndSend(long waitStart) {
+        RiotApiKey acquired = keyPool.tryAcquire(priority);
+        if (acquired == null && !keyPool.hasUsableKey()) {
+            completeWithoutKey();
+            return;
+        }
+        if (acquired == null) {
+            long delay = Math.max(MIN_ACQUIRE_DELAY_MILLIS, keyPool.getDelay(priority));
+            RETRY_EXECUTOR.schedule(() -> acquireAndSend(waitStart), delay, TimeUnit.MILLISECONDS);
+            return;
+        }
+        key = acquired;
+        if (metrics != null) metrics.recordQueueWait(System.currentTimeMillis() - waitStart);
+        send();
+    }
+
+    /**
+     * completes the response with null, used if all keys of the key pool are disabled or the thread was
+     * interrupted while waiting for the rate limiter.
+     * the request allowed by the circuit breaker (if provided) is released, as it is not sent
+     */
+    private void completeWithoutKey() {
+        if (Thread.currentThread().isInterrupted())
+            log.debug("Interrupted while waiting for the rate limiter, request is not sent");
+        else log.debug("No enabled API key available, request is not sent");
+        if (circuitBreaker != null) circuitBreaker.release();
+        status = 0;
+        complete(null);
     }
 
     /**
-     * reads response from future request if not already set
+     * completes the response with the cached response if it is cached or with null if the circuit breaker
+     * (if provided) does not allow requests
+     *
+     * @return true if the response was completed and the request must not be sent
      */
-    private void readResponse() {
-        if (response != null) return;
+    private boolean completeWithoutRequest() {
+        if (responseCache != null && attempts == 0) {
+            byte[] body = responseCache.get(cacheKey);
+            if (body != null) {
+                status = 200;
+                if (metrics != null) metrics.recordCacheHit();
+                complete(readEntity(new ByteArrayInputStream(body)));
+                return true;
+            }
+        }
+        if (circuitBreaker != null && !circuitBreaker.allowRequest()) {
+            status = 0;
+            if (metrics != null) metrics.recordRejected();
+            complete(null);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * generates a new async invoker for the acquired key and invokes it with a callback handling the response
+     */
+    private void send() {
+        attempts++;
+        sendTime = System.currentTimeMillis();
         try {
-            response = responseFuture.get();
-        } catch (InterruptedException | ExecutionException e) {
+            builder.get(key == null ? null : key.getKey()).get(new InvocationCallback<Response>() {
+                @Override
+                public void completed(Response response) {
+                    handleResponse(response, null);
+                }
+
+                @Override
+                public void failed(Throwable throwable) {
+                    handleResponse(null, throwable);
+                }
+            });
+        } catch (RuntimeException e) {
+            handleResponse(null, e);
+        }
+    }
+
+    /**
+     * updates the rate limiter of the key (if provided) with the rate limit headers of the response and either
+     * completes this future or, if the retry policy allows it, sends the request again after the delay given by the policy.
+     * the status is recorded by the key pool, if the key pool disabled the key because it was rejected
+     * the request is sent again with another key
+     *
+     * @param response  the response received, null if the request failed
+     * @param throwable the reason the request failed, null if a response was received
+     */
+    private void handleResponse(Response response, Throwable throwable) {
+        RiotApiKey key = this.key;
+        if (key != null) key.getRateLimiter().update(response);
+
+        int status = response == null ? 0 : response.getStatus();
+        long latency = System.currentTimeMillis() - sendTime;
+        if (metrics != null) metrics.recordResponse(status, latency);
+        if (circuitBreaker != null) circuitBreaker.record(response != null && status < 500, latency);
+
+        if (key != null && keyPool != null && keyPool.recordResponse(key, status)) {
+            response.close();
+            RETRY_EXECUTOR.execute(this::resend);
+            return;
+        }
+
+        long delay = retryPolicy.getRetryDelay(attempts, response);
+        if (delay == RiotRetryPolicy.NO_RETRY) {
+            this.response = response;
+            this.status = status;
+            if (response == null) completeExceptionally(throwable);
+            else complete(readEntity(response));
+            return;
+        }
+
+        // block the limiter of the key if the application or user rate limit was exceeded,
+        // limits of the underlying service only affect this request
+        if (status == 429 && key != null &&
+                !"service".equals(response.getHeaderString("X-Rate-Limit-Type")))
+            key.getRateLimiter().blockFor(delay);
+
+        log.info(String.format("Request failed with status %d (attempt %d), retrying in %d ms",
+                status, attempts, delay));
+        if (response != null) response.close();
+        RETRY_EXECUTOR.schedule(this::resend, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * reads the response object from a response if the request was successful.
+     * the json is parsed directly from the entity stream without copying it to a string first,
+     * unless the response has to be stored in the response cache
+     *
+     * @param response the response to read
+     * @return the response object, null if the request was not successful or the entity could not be read
+     */
+    private T readEntity(Response response) {
+        if (response.getStatus() != 200) {
+            response.close();
+            return null;
+        }
+        try (CountingInputStream in = new CountingInputStream(response.readEntity(InputStream.class))) {
+            try {
+                if (responseCache == null) return readEntity(in);
+                byte[] body = readBody(in);
+                T entity = readEntity(new ByteArrayInputStream(body));
+                if (entity != null) responseCache.put(cacheKey, body, cacheTtl);
+                return entity;
+            } finally {
+                if (metrics != null) metrics.recordBytes(in.getCount());
+            }
+        } catch (IOException | RuntimeException e) {
             e.printStackTrace();
+            return null;
+        } finally {
+            response.close();
         }
     }
 
     /**
-     * reads the response and if the request was successful returns the object acquired
+     * reads the response object from a json stream
+     *
+     * @param in the stream to read
+     * @return the response object, null if the json could not be read
+     */
+    private T readEntity(InputStream in) {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return entityReader.read(reader);
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * reads a response body completely
+     *
+     * @param in the stream to read
+     * @return the body
+     * @throws IOException if the stream could not be read
+     */
+    private static byte[] readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) body.write(buffer, 0, read);
+        return body.toByteArray();
+    }
+
+    /**
+     * completes a response which is not sent itself
+     *
+     * @param object the response object, null if the request was not successful
+     * @param status the status code of the response
+     */
+    public void complete(T object, int status) {
+        this.status = status;
+        complete(object);
+    }
+
+    /**
+     * waits for the response and if the request was successful returns the object acquired
      * otherwise returns null
      *
      * @return the response object
      */
+    @Override
     public T get() {
-        readResponse();
-        if (response.getStatus() != 200) return null;
-        String json = response.readEntity(String.class);
-        return GSON.fromJson(json, type != null ? type : clazz);
+        try {
+            return join();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return null;
+        }
     }
 
     /**
-     * retries sending the request to the api and set response to null
+     * waits for the response and returns it
+     *
+     * @return the response, null if no response was received or the response was cached
      */
-    public void resend() {
-        responseFuture.cancel(true);
-        responseFuture = builder.get().get();
-        response = null;
+    public Response getResponse() {
+        get();
+        return response;
     }
 
     /**
-     * reads the response and returns it
+     * waits for the response and returns its status code
      *
-     * @return the response
+     * @return the status code (200 for cached responses), 0 if no response was received
      */
-    public Response getResponse() {
-        readResponse();
-        return response;
+    public int getStatus() {
+        get();
+        return status;
+    }
+
+    public void setKeyPool(RiotApiKeyPool keyPool) {
+        this.keyPool = keyPool;
+    }
+
+    public void setRetryPolicy(RiotRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    public void setPriority(RequestPriority priority) {
+        this.priority = priority;
     }
 
-    public void setRateLimiter(RateLimiter rateLimiter) {
-        this.rateLimiter = rateLimiter;
+    public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public void setMetrics(RequestMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * sets the cache to take the response from and store it in
+     *
+     * @param responseCache the response cache
+     * @param cacheKey      the key of the response in the cache
+     * @param cacheTtl      the time in milliseconds the response is cached
+     */
+    public void setResponseCache(ResponseCache responseCache, String cacheKey, long cacheTtl) {
+        this.responseCache = responseCache;
+        this.cacheKey = cacheKey;
+        this.cacheTtl = cacheTtl;
     }
 
     /**
-     * lambda interface to generate new async invokers to resend the request
+     * lambda interface to generate new async invokers using the given api key to resend the request
      */
     public interface AsyncInvokerProvider {
-        AsyncInvoker get();
+        AsyncInvoker get(String apiKey);
+    }
+
+    /**
+     * lambda interface to read the response object from the json stream of a response
+     *
+     * @param <T> type of the response object
+     */
+    public interface EntityReader<T> {
+        T read(JsonReader reader) throws IOException;
     }
 }
@@ -0,0 +1,84 @@
+package com.lvack.MasterStats.Api;
+
+import javax.ws.rs.core.Response;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * RiotRetryPolicyClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * policy deciding whether and when a failed riot api request is sent again.
+ * rate limited requests (429) wait for the time given in the Retry-After header,
+ * server errors (500, 503) and failed connections are retried with an exponential backoff with jitter
+ */
+public class RiotRetryPolicy {
+    public static final RiotRetryPolicy DEFAULT = new RiotRetryPolicy(4, 1000, 30000);
+    public static final int NO_RETRY = -1;
+    private final int maxAttempts;
+    private final long baseDelay;
+    private final long maxDelay;
+
+    /**
+     * @param maxAttempts the maximum number of times a request is sent (including the first try)
+     * @param baseDelay   the delay in milliseconds before the first retry if no Retry-After header is present
+     * @param maxDelay    the maximum delay in milliseconds between two tries
+     */
+    public RiotRetryPolicy(int maxAttempts, long baseDelay, long maxDelay) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+    }
+
+    /**
+     * calculates the delay before the request should be sent again
+     *
+     * @param attempt  the number of tries already made
+     * @param response the response of the last try, null if the request failed without a response
+     * @return the delay in milliseconds or NO_RETRY if the request should not be sent again
+     */
+    public long getRetryDelay(int attempt, Response response) {
+        if (attempt >= maxAttempts) return NO_RETRY;
+        if (response == null) return getBackoffDelay(attempt);
+
+        switch (response.getStatus()) {
+            case 429:
+                long retryAfter = getRetryAfter(response);
+                return retryAfter >= 0 ? Math.min(retryAfter, maxDelay) : getBackoffDelay(attempt);
+            case 500:
+            case 503:
+                return getBackoffDelay(attempt);
+            default:
+                return NO_RETRY;
+        }
+    }
+
+    /**
+     * calculates an exponentially growing delay with jitter (between half and the full delay)
+     *
+     * @param attempt the number of tries already made
+     * @return the delay in milliseconds
+     */
+    private long getBackoffDelay(int attempt) {
+        long delay = Math.min(maxDelay, baseDelay << Math.min(attempt - 1, 20));
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    /**
+     * reads the Retry-After header of a response
+     *
+     * @param response the response
+     * @return the delay in milliseconds, -1 if the header is not set or invalid
+     */
+    public static long getRetryAfter(Response response) {
+        String retryAfter = response.getHeaderString("Retry-After");
+        if (retryAfter == null) return -1;
+        try {
+            return Long.parseLong(retryAfter.trim()) * 1000;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -26,6 +26,8 @@ public enum RiotEndpoint {
 
     public static final RiotEndpoint[] PLAYABLE_ENDPOINTS = new RiotEndpoint[]{BR, EUNE, EUW, JP, KR, LAN, LAS, NA, OCE, TR, RU};
     public static final RiotEndpoint DEFAULT_ENDPOINT = EUW;
+    // host all requests are sent to instead of the riot api (e.g. the stand-in server), null to use the riot api
+    private static String hostOverride;
     private final String platformId;
     private final String host;
 
@@ -40,7 +42,32 @@ public enum RiotEndpoint {
         return platformId;
     }
 
+    /**
+     * returns the host requests to the endpoint are sent to, if a host override is set
+     * the name of the endpoint is added as first path segment to the override
+     *
+     * @return the host to send requests to
+     */
     public String getHost() {
+        String override = hostOverride;
+        if (override != null) return override + name() + "/";
         return host;
     }
+
+    /**
+     * @return the host of the riot api for the endpoint, ignoring the host override
+     */
+    public String getApiHost() {
+        return host;
+    }
+
+    /**
+     * sets the host all requests are sent to instead of the riot api
+     *
+     * @param hostOverride the host (e.g. http://localhost:8089/), null to use the riot api
+     */
+    public static void setHostOverride(String hostOverride) {
+        if (hostOverride != null && !hostOverride.endsWith("/")) hostOverride += "/";
+        RiotEndpoint.hostOverride = hostOverride;
+    }
 }
@@ -0,0 +1,32 @@
+package com.lvack.MasterStats.Api.Transport;
+
+import org.apache.http.config.ConnectionConfig;
+import org.apache.http.conn.HttpConnectionFactory;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.ManagedHttpClientConnectionFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CountingConnectionFactoryClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * connection factory counting the connections opened by the connection pool
+ */
+class CountingConnectionFactory implements HttpConnectionFactory<HttpRoute, ManagedHttpClientConnection> {
+    private final AtomicLong createdConnections = new AtomicLong();
+
+    @Override
+    public ManagedHttpClientConnection create(HttpRoute route, ConnectionConfig config) {
+        createdConnections.incrementAndGet();
+        return ManagedHttpClientConnectionFactory.INSTANCE.create(route, config);
+    }
+
+    long getCreatedConnections() {
+        return createdConnections.get();
+    }
+}
@@ -0,0 +1,53 @@
+package com.lvack.MasterStats.Api.Transport;
+
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * DrainingResponseFilterClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * response filter reading the rest of a response entity before it is closed.
+ * the apache connector closes the response before the entity stream, which discards the connection
+ * unless the entity was read completely, so without draining no connection would ever be reused
+ */
+class DrainingResponseFilter implements ClientResponseFilter {
+    // responses with more unread data are not drained, the connection is closed instead
+    private static final int MAX_DRAIN = 64 * 1024;
+
+    @Override
+    public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) throws IOException {
+        if (responseContext.hasEntity())
+            responseContext.setEntityStream(new DrainingInputStream(responseContext.getEntityStream()));
+    }
+
+    /**
+     * input stream reading its source until the end before closing it
+     */
+    private static class DrainingInputStream extends FilterInputStream {
+        DrainingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                byte[] buffer = new byte[4096];
+                int drained = 0;
+                int read;
+                while (drained < MAX_DRAIN && (read = in.read(buffer)) != -1) drained += read;
+            } catch (IOException ignored) {
+                // the connection is discarded when closing the stream
+            } finally {
+                super.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.lvack.MasterStats.Api.Transport;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
+import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.filter.EncodingFilter;
+import org.glassfish.jersey.message.GZipEncoder;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.ClientRequestFilter;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RiotTransportClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * http transport shared by all riot api instances. uses a pool of keep-alive connections
+ * (limited in total and per host), requests gzip compressed responses and sets connect and read timeouts.
+ * counts requests and opened connections to monitor how well connections are reused
+ */
+@Slf4j
+public class RiotTransport {
+    private static final int LOG_INTERVAL = 10000;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CountingConnectionFactory connectionFactory;
+    private final AtomicLong requestCount = new AtomicLong();
+    private final Client client;
+
+    /**
+     * creates the connection pool and the jersey client using it. the following properties are used:
+     * connectionPoolSize (maximum connections in total), connectionsPerHost (maximum connections per region),
+     * connectTimeout and readTimeout (in milliseconds) and gzip (whether to request compressed responses)
+     *
+     * @param properties the properties to configure the transport
+     */
+    public RiotTransport(Properties properties) {
+        int poolSize = Integer.parseInt(properties.getProperty("connectionPoolSize", "200"));
+        int perHost = Integer.parseInt(properties.getProperty("connectionsPerHost", "20"));
+        int connectTimeout = Integer.parseInt(properties.getProperty("connectTimeout", "5000"));
+        int readTimeout = Integer.parseInt(properties.getProperty("readTimeout", "10000"));
+        boolean gzip = "true".equals(properties.getProperty("gzip", "true").toLowerCase());
+
+        Registry<ConnectionSocketFactory> socketFactories = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", SSLConnectionSocketFactory.getSocketFactory())
+                .build();
+        connectionFactory = new CountingConnectionFactory();
+        connectionManager = new PoolingHttpClientConnectionManager(socketFactories, connectionFactory);
+        connectionManager.setMaxTotal(poolSize);
+        connectionManager.setDefaultMaxPerRoute(perHost);
+        // check connections which were idle for a while before reusing them
+        connectionManager.setValidateAfterInactivity(2000);
+
+        ClientConfig config = new ClientConfig()
+                .connectorProvider(new ApacheConnectorProvider())
+                .property(ApacheClientProperties.CONNECTION_MANAGER, connectionManager)
+                .property(ClientProperties.CONNECT_TIMEOUT, connectTimeout)
+                .property(ClientProperties.READ_TIMEOUT, readTimeout)
+                .property(ClientProperties.ASYNC_THREADPOOL_SIZE, poolSize)
+                .register((ClientRequestFilter) requestContext -> countRequest())
+                .register(DrainingResponseFilter.class);
+        if (gzip) config.register(EncodingFilter.class).register(GZipEncoder.class);
+        client = ClientBuilder.newClient(config);
+
+        log.info(String.format("Created Riot API transport with %d connections (%d per host), " +
+                        "%d ms connect and %d ms read timeout, gzip %s", poolSize, perHost, connectTimeout,
+                readTimeout, gzip ? "enabled" : "disabled"));
+    }
+
+    /**
+     * counts a request sent and logs the transport statistics every LOG_INTERVAL requests
+     */
+    private void countRequest() {
+        if (requestCount.incrementAndGet() % LOG_INTERVAL == 0) log.info(getStatistics());
+    }
+
+    /**
+     * @return a summary of the connection pool usage and connection reuse
+     */
+    public String getStatistics() {
+        long requests = requestCount.get();
+        long connections = connectionFactory.getCreatedConnections();
+        PoolStats stats = connectionManager.getTotalStats();
+        return String.format("Riot API transport: %d requests over %d connections (%.1f%% reused), " +
+                        "%d leased, %d idle, %d pending", requests, connections,
+                requests == 0 ? 0 : 100.0 * (requests - connections) / requests,
+                stats.getLeased(), stats.getAvailable(), stats.getPending());
+    }
+
+    public Client getClient() {
+        return client;
+    }
+}
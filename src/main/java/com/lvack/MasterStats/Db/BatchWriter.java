@@ -0,0 +1,260 @@
+package com.lvack.MasterStats.Db;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.ConversionSchema;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.amazonaws.services.dynamodbv2.datamodeling.ItemConverter;
+import com.amazonaws.services.dynamodbv2.document.BatchWriteItemOutcome;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * BatchWriterClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * singleton writing and deleting items with batch write requests of up to 25 items of the same table instead of
+ * one request per item. before a batch is sent, the write units of its items (1 per started KB of the attribute
+ * values the mapper sends) are acquired from the write limiter of the table. the batches are sent by a pool of threads, so multiple batches of a table are
+ * in flight at the same time while the write limiter keeps them within the capacity of the table.
+ * items not processed by the db (throttled) are sent again with exponential backoff
+ */
+@Slf4j
+public class BatchWriter {
+    @Getter
+    private static final BatchWriter instance = new BatchWriter();
+    // maximum number of items in a batch write request
+    private static final int MAX_BATCH_ITEMS = 25;
+    private static final int THREADS = 8;
+    private static final int MAX_UNPROCESSED_RETRIES = 8;
+    // number of times a failed batch is sent again after the retries of the mapper
+    private static final int MAX_FAILED_RETRIES = 3;
+    private static final long BASE_BACKOFF_MILLIS = 50;
+    private static final long MAX_BACKOFF_MILLIS = 10000;
+    private static final int BYTES_PER_WRITE_UNIT = 1024;
+    private final ExecutorService executor;
+    private final DynamoDBMapperConfig config;
+    // converts items to their attribute values like the mapper (default conversion schema) does
+    private final ItemConverter itemConverter;
+
+    private BatchWriter() {
+        executor = Executors.newFixedThreadPool(THREADS, r -> {
+            Thread thread = new Thread(r);
+            thread.setName("dbBatchWriteThread");
+            thread.setDaemon(true);
+            return thread;
+        });
+        config = new DynamoDBMapperConfig.Builder().withBatchWriteRetryStrategy(new ThrottledRetryStrategy()).build();
+        itemConverter = DynamoDBMapperConfig.DEFAULT.getConversionSchema()
+                .getConverter(new ConversionSchema.Dependencies());
+    }
+
+    /**
+     * writes the items to the db (replacing the stored items) and blocks until all of them are written
+     *
+     * @param items the items to write, they may belong to different tables
+     * @throws BatchWriteException if some of the items could not be written
+     */
+    public void save(List<?> items) {
+        write(items, false);
+    }
+
+    /**
+     * deletes the items from the db and blocks until all of them are deleted
+     *
+     * @param items the items to delete, they may belong to different tables
+     * @throws BatchWriteException if some of the items could not be deleted
+     */
+    public void delete(List<?> items) {
+        write(items, true);
+    }
+
+    /**
+     * splits the items in batches per table, sends them using the thread pool and waits for all batches.
+     * if a batch failed, the failure is thrown once all batches are finished
+     *
+     * @param items  the items
+     * @param delete true to delete the items, false to write them
+     */
+    private void write(List<?> items, boolean delete) {
+        if (items.isEmpty()) return;
+        Map<DBTable, List<Object>> byTable = items.stream()
+                .collect(Collectors.groupingBy(i -> DBTable.forClass(i.getClass())));
+        List<Future<?>> futures = new ArrayList<>();
+        byTable.forEach((table, tableItems) -> {
+            for (int i = 0; i < tableItems.size(); i += MAX_BATCH_ITEMS) {
+                List<Object> batch = tableItems.subList(i, Math.min(tableItems.size(), i + MAX_BATCH_ITEMS));
+                futures.add(executor.submit(() -> writeBatch(table, batch, delete)));
+            }
+        });
+        RuntimeException failure = null;
+        boolean interrupted = false;
+        for (Future<?> future : futures) {
+            try {
+                // wait for the remaining batches even if interrupted, so the failure of every batch is known
+                while (true) {
+                    try {
+                        future.get();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                RuntimeException exception = cause instanceof RuntimeException ? (RuntimeException) cause :
+                        new BatchWriteException(cause.getMessage(), cause);
+                if (failure == null) failure = exception;
+                else failure.addSuppressed(exception);
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * sends a batch of items of a table after acquiring their write units. the mapper sends unprocessed items
+     * again (see ThrottledRetryStrategy), batches which still failed are sent again a few times
+     *
+     * @param table  the table of the items
+     * @param batch  the items
+     * @param delete true to delete the items, false to write them
+     * @throws BatchWriteException if items are still not processed after all retries
+     */
+    private void writeBatch(DBTable table, List<Object> batch, boolean delete) {
+        table.acquireWrite(batch.stream().mapToInt(this::estimateWriteUnits).sum());
+        DynamoDBMapper dynamoDBMapper = DBConnector.getInstance().getDynamoDBMapper();
+        List<DynamoDBMapper.FailedBatch> failedBatches = delete ?
+                dynamoDBMapper.batchWrite(Collections.emptyList(), batch, config) :
+                dynamoDBMapper.batchWrite(batch, Collections.emptyList(), config);
+
+        for (DynamoDBMapper.FailedBatch failedBatch : failedBatches) {
+            Map<String, List<WriteRequest>> unprocessed = failedBatch.getUnprocessedItems();
+            for (int attempt = 0; attempt < MAX_FAILED_RETRIES && !isEmpty(unprocessed); attempt++) {
+                log.info(String.format("Batch write to '%s' failed (%s), retrying %d items", table.getTableName(),
+                        failedBatch.getException(), count(unprocessed)));
+                sleep(backoff(MAX_UNPROCESSED_RETRIES + attempt));
+                acquireWriteUnits(unprocessed);
+                try {
+                    BatchWriteItemOutcome outcome = DBConnector.getInstance().getDynamoDB()
+                            .batchWriteItemUnprocessed(unprocessed);
+                    unprocessed = outcome.getUnprocessedItems();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+            if (!isEmpty(unprocessed)) {
+                String message = String.format("Could not write %d items to '%s'", count(unprocessed), table.getTableName());
+                log.error(message);
+                throw new BatchWriteException(message, failedBatch.getException());
+            }
+        }
+    }
+
+    /**
+     * estimates the write units needed for an item from the size of the attribute values the mapper sends for it
+     *
+     * @param item the item
+     * @return the estimated number of write units, at least 1
+     */
+    private int estimateWriteUnits(Object item) {
+        return Math.max(1, (size(itemConverter.convert(item)) + BYTES_PER_WRITE_UNIT - 1) / BYTES_PER_WRITE_UNIT);
+    }
+
+    /**
+     * acquires the write units of unprocessed write requests (calculated from the attribute values for writes,
+     * 1 for deletes) from the write limiters of their tables
+     *
+     * @param unprocessed the unprocessed write requests by table name
+     */
+    private static void acquireWriteUnits(Map<String, List<WriteRequest>> unprocessed) {
+        unprocessed.forEach((tableName, requests) -> {
+            int units = requests.stream().mapToInt(r -> r.getPutRequest() == null ? 1 : Math.max(1,
+                    (size(r.getPutRequest().getItem()) + BYTES_PER_WRITE_UNIT - 1) / BYTES_PER_WRITE_UNIT)).sum();
+            DBTable.forTableName(tableName).acquireWrite(units);
+        });
+    }
+
+    /**
+     * calculates the size of an item the way the db does (attribute names and values)
+     *
+     * @param item the attribute values of the item by name
+     * @return the size in bytes
+     */
+    private static int size(Map<String, AttributeValue> item) {
+        return item.entrySet().stream()
+                .mapToInt(e -> e.getKey().getBytes(StandardCharsets.UTF_8).length + size(e.getValue())).sum();
+    }
+
+    private static int size(AttributeValue value) {
+        if (value.getS() != null) return value.getS().getBytes(StandardCharsets.UTF_8).length;
+        if (value.getN() != null) return value.getN().length();
+        if (value.getB() != null) return value.getB().remaining();
+        if (value.getSS() != null) return value.getSS().stream().mapToInt(String::length).sum();
+        if (value.getNS() != null) return value.getNS().stream().mapToInt(String::length).sum();
+        if (value.getL() != null) return 3 + value.getL().stream().mapToInt(v -> 1 + size(v)).sum();
+        if (value.getM() != null) return 3 + size(value.getM());
+        return 1;
+    }
+
+    private static boolean isEmpty(Map<String, List<WriteRequest>> requests) {
+        return requests == null || requests.values().stream().allMatch(List::isEmpty);
+    }
+
+    private static int count(Map<String, List<WriteRequest>> requests) {
+        return requests.values().stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * @param retries the number of retries already made
+     * @return the exponential backoff with jitter before the next retry in milliseconds
+     */
+    private static long backoff(int retries) {
+        long backoff = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << Math.min(retries, 16));
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * thrown if items of a batch could not be written to the db
+     */
+    public static class BatchWriteException extends RuntimeException {
+        BatchWriteException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * retry strategy used by the mapper for items not processed by the db: the items are sent again
+     * with exponential backoff, after their write units were acquired again
+     */
+    private static class ThrottledRetryStrategy implements DynamoDBMapperConfig.BatchWriteRetryStrategy {
+        @Override
+        public int getMaxRetryOnUnprocessedItems(Map<String, List<WriteRequest>> batchWriteItemInput) {
+            return MAX_UNPROCESSED_RETRIES;
+        }
+
+        @Override
+        public long getDelayBeforeRetryUnprocessedItems(Map<String, List<WriteRequest>> unprocessedItems,
+                                                        int retriesAttempted) {
+            acquireWriteUnits(unprocessedItems);
+            return backoff(retriesAttempted);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.lvack.MasterStats.Db;
+
+import com.lvack.MasterStats.Api.StaticData.RiotEndpoint;
+import com.lvack.MasterStats.Db.DataClasses.SummonerItem;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+import static com.lvack.MasterStats.Util.SummonerKeyUtils.summonerKeyToIdRegion;
+
+/**
+ * CrawlFrontierClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * the summoners the crawler updates next, per region. a scan of the summoner table offers every summoner to the
+ * frontier, which keeps the stalest summoners of each region in a bounded heap. once the scan is finished the heaps
+ * are published, so the crawler takes the globally stalest summoners of a region, stalest first.
+ * summoners searched by users are boosted and handed out before the stalest summoners, so the summoners
+ * of their matches are crawled soon
+ */
+@Slf4j
+public class CrawlFrontier {
+    private static final int BOOST_CAPACITY = 1000;
+    private static final Comparator<SummonerItem> STALEST_FIRST = Comparator.comparingLong(SummonerItem::getLastUpdated);
+    private final int capacity;
+    // heaps of the scan in progress, the freshest of the kept summoners on top so it can be replaced
+    private final Map<RiotEndpoint, PriorityQueue<SummonerItem>> scanning = new EnumMap<>(RiotEndpoint.class);
+    private final Map<RiotEndpoint, Deque<SummonerItem>> published = new EnumMap<>(RiotEndpoint.class);
+    private final Map<RiotEndpoint, Deque<SummonerItem>> boosted = new EnumMap<>(RiotEndpoint.class);
+
+    /**
+     * @param capacity the number of summoners kept per region
+     */
+    public CrawlFrontier(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * offers a summoner found by the scan in progress, it is kept if it is one of the stalest of its region
+     *
+     * @param item the summoner
+     */
+    public synchronized void offer(SummonerItem item) {
+        RiotEndpoint region = summonerKeyToIdRegion(item.getSummonerKey()).getRegion();
+        PriorityQueue<SummonerItem> heap = scanning.computeIfAbsent(region,
+                r -> new PriorityQueue<>(STALEST_FIRST.reversed()));
+        if (heap.size() < capacity) heap.add(item);
+        else if (item.getLastUpdated() < heap.peek().getLastUpdated()) {
+            heap.poll();
+            heap.add(item);
+        }
+    }
+
+    /**
+     * publishes the summoners kept by the finished scan, replacing the summoners left from the previous scan
+     */
+    public synchronized void publish() {
+        published.clear();
+        scanning.forEach((region, heap) -> {
+            List<SummonerItem> items = new ArrayList<>(heap);
+            items.sort(STALEST_FIRST);
+            published.put(region, new ArrayDeque<>(items));
+        });
+        scanning.clear();
+        log.info(String.format("Published crawl frontier with %d summoners", size()));
+    }
+
+    /**
+     * boosts a summoner, so it is handed out before the stalest summoners of its region
+     *
+     * @param item the summoner
+     */
+    public synchronized void boost(SummonerItem item) {
+        RiotEndpoint region = summonerKeyToIdRegion(item.getSummonerKey()).getRegion();
+        Deque<SummonerItem> queue = boosted.computeIfAbsent(region, r -> new ArrayDeque<>());
+        // only the most recent boosts are kept
+        if (queue.size() >= BOOST_CAPACITY) queue.pollFirst();
+        queue.addLast(item);
+    }
+
+    /**
+     * takes the next summoners of a region to update, boosted summoners first, then the stalest summoners
+     *
+     * @param region the region
+     * @param count  the maximum number of summoners to take
+     * @param stale  checks whether a summoner still needs an update, stalest summoners updated since they
+     *               were added to the frontier are dropped (boosted summoners are always handed out)
+     * @return the summoners, empty if the frontier of the region is empty
+     */
+    public synchronized List<SummonerItem> poll(RiotEndpoint region, int count, Predicate<SummonerItem> stale) {
+        List<SummonerItem> items = new ArrayList<>();
+        Deque<SummonerItem> boostedQueue = boosted.get(region);
+        while (boostedQueue != null && items.size() < count && !boostedQueue.isEmpty())
+            items.add(boostedQueue.pollFirst());
+        Deque<SummonerItem> publishedQueue = published.get(region);
+        while (publishedQueue != null && items.size() < count && !publishedQueue.isEmpty()) {
+            SummonerItem item = publishedQueue.pollFirst();
+            if (stale.test(item)) items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * @return the number of published and boosted summoners of all regions
+     */
+    public synchronized int size() {
+        return published.values().stream().mapToInt(Deque::size).sum() +
+                boosted.values().stream().mapToInt(Deque::size).sum();
+    }
+}
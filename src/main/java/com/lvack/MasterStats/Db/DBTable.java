@@ -1,14 +1,17 @@
 package com.lvack.MasterStats.Db;
 
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
 import com.amazonaws.services.dynamodbv2.document.DynamoDB;
 import com.amazonaws.services.dynamodbv2.model.TableDescription;
 import com.google.common.util.concurrent.RateLimiter;
 import com.lvack.MasterStats.Util.Pair;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * DBTableClass for MasterStats
@@ -17,7 +20,9 @@ import java.util.Set;
  */
 
 /**
- * enum of all db tables with their respective name and rate limiters to control request counts
+ * enum of all db tables with their respective name and rate limiters to control request counts.
+ * writes to the table are acquired through a fair lock, so the threads writing to the table (e.g. the crawler
+ * workers of the regions) get the write capacity in the order they asked for it
  */
 @Slf4j
 public enum DBTable {
@@ -30,6 +35,8 @@ public enum DBTable {
     private RateLimiter readLimiter;
     private RateLimiter writeLimiter;
     private HashMap<String, Pair<RateLimiter, RateLimiter>> indexRateLimiters;
+    // the guava rate limiter does not hand out permits in order, so the waiting writers queue on this lock
+    private final ReentrantLock writeLock = new ReentrantLock(true);
 
     DBTable(String tableName) {
         this.tableName = tableName;
@@ -73,6 +80,53 @@ public enum DBTable {
         });
     }
 
+    /**
+     * blocks until a write to the table can be made, threads waiting for writes are served in order
+     */
+    public void acquireWrite() {
+        acquireWrite(1);
+    }
+
+    /**
+     * blocks until the given number of write units can be used, threads waiting for writes are served in order
+     *
+     * @param permits the number of write units to acquire
+     */
+    public void acquireWrite(int permits) {
+        writeLock.lock();
+        try {
+            writeLimiter.acquire(permits);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * returns the table with the given name
+     *
+     * @param tableName the name of the table
+     * @return the table
+     * @throws IllegalArgumentException if no table has the name
+     */
+    public static DBTable forTableName(String tableName) {
+        return Arrays.stream(values()).filter(t -> t.tableName.equals(tableName)).findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(String.format("Unknown table '%s'", tableName)));
+    }
+
+    /**
+     * returns the table the items of the given data class are stored in
+     *
+     * @param clazz the data class annotated with DynamoDBTable
+     * @return the table
+     * @throws IllegalArgumentException if the class is not a data class of a table
+     */
+    public static DBTable forClass(Class<?> clazz) {
+        DynamoDBTable annotation = clazz.getAnnotation(DynamoDBTable.class);
+        if (annotation == null)
+            throw new IllegalArgumentException(String.format("%s is not a data class", clazz.getSimpleName()));
+        return forTableName(annotation.tableName());
+    }
+
     public String getTableName() {
         return tableName;
     }
@@ -30,5 +30,8 @@ public class SummonerItem {
     private long revisionDate;
     @DynamoDBAttribute(attributeName = "summonerLevel")
     private long summonerLevel;
+    // time of the newest match of the summoner expanded by the crawler, null if their matches were never expanded
+    @DynamoDBAttribute(attributeName = "lastMatchTime")
+    private Long lastMatchTime;
 
 }
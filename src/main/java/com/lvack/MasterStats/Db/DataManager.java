@@ -1,10 +1,14 @@
 package com.lvack.MasterStats.Db;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.*;
+import com.amazonaws.services.dynamodbv2.document.Table;
+import com.amazonaws.services.dynamodbv2.document.spec.UpdateItemSpec;
+import com.amazonaws.services.dynamodbv2.document.utils.ValueMap;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
-import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputExceededException;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
 import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
 import com.google.common.util.concurrent.RateLimiter;
+import com.lvack.MasterStats.Api.RateLimit.RequestPriority;
 import com.lvack.MasterStats.Api.ResponseClasses.*;
 import com.lvack.MasterStats.Api.RiotApi;
 import com.lvack.MasterStats.Api.RiotApiFactory;
@@ -17,6 +21,8 @@ import com.lvack.MasterStats.Util.SummonerKey;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -36,34 +42,104 @@ import static com.lvack.MasterStats.Util.SummonerKeyUtils.summonerKeyToIdRegion;
 @Slf4j
 public class DataManager {
     public static final int UP_TO_DATE_DURATION = 60 * 60 * 1000;
+    // time of the last update of every summoner written to (or scanned from) the db
+    private static final FreshnessIndex freshnessIndex = new FreshnessIndex();
+    // number of the stalest summoners per region kept by the crawl frontier
+    private static final int CRAWL_FRONTIER_CAPACITY = 5000;
+    private static final CrawlFrontier crawlFrontier = new CrawlFrontier(CRAWL_FRONTIER_CAPACITY);
+    private static final SummonerCallPlanner callPlanner = new SummonerCallPlanner(freshnessIndex);
+    // number of champion mastery items written and skipped because they did not change
+    private static final AtomicLong writtenMasteryItems = new AtomicLong();
+    private static final AtomicLong unchangedMasteryItems = new AtomicLong();
+    // summoner items are written without their null attributes, so the match cursor is kept if it is not known
+    private static final DynamoDBMapperConfig SKIP_NULL_CONFIG =
+            new DynamoDBMapperConfig(DynamoDBMapperConfig.SaveBehavior.UPDATE_SKIP_NULL_ATTRIBUTES);
+    // number of summoners waiting to be written and of threads writing them
+    private static final int WRITE_BEHIND_CAPACITY = 1000;
+    private static final int WRITE_BEHIND_THREADS = 4;
+    private static final WriteBehindQueue writeBehindQueue =
+            new WriteBehindQueue(WRITE_BEHIND_CAPACITY, WRITE_BEHIND_THREADS, DataManager::writeSummonerUpdate);
 
     /**
      * Requests the required information (mastery score, league data, ...) from the riot api,
-     * generates SummonerItems and championMasteryItems from this data and stores the summoners in the db
+     * generates SummonerItems and championMasteryItems from this data and queues the summoners to be stored in the db
      *
      * @param endpoint    the endpoint the summoner ids are taken from
      * @param summonerIds the summoner ids of the summoners to be saved to the db
      */
     public static void saveSummonersToDb(RiotEndpoint endpoint, Long... summonerIds) {
-        // get the riotApi for the given endpoint
-        RiotApi riotApi = RiotApiFactory.getApi(endpoint);
-        // request summoner data from the riot api
-        Map<String, SummonerDto> stringSummonerDtoMap = riotApi.getSummonerApi().getSummonersByIds(summonerIds).get();
+        saveSummonersToDb(endpoint, RequestPriority.INTERACTIVE, summonerIds);
+    }
+
+    /**
+     * Requests the required information (mastery score, league data, ...) from the riot api with the given priority,
+     * generates SummonerItems and championMasteryItems from this data and queues the summoners to be stored in the db.
+     * until they are written, the queued summoners are returned by getSummonerStatistic
+     *
+     * @param endpoint    the endpoint the summoner ids are taken from
+     * @param priority    the priority of the riot api requests
+     * @param summonerIds the summoner ids of the summoners to be saved to the db
+     */
+    public static void saveSummonersToDb(RiotEndpoint endpoint, RequestPriority priority, Long... summonerIds) {
+        SummonerUpdate summonerUpdate = fetchSummonerUpdate(endpoint, priority, summonerIds);
+        if (summonerUpdate != null && !summonerUpdate.getSummonerItems().isEmpty())
+            queueSummonerUpdate(summonerUpdate);
+    }
+
+    /**
+     * queues the summoner and champion mastery items of a summoner update to be written to the db by the
+     * write-behind queue, blocking while the queue is full
+     *
+     * @param summonerUpdate the items to write
+     * @return a future completed once the items are written
+     */
+    public static CompletableFuture<Void> queueSummonerUpdate(SummonerUpdate summonerUpdate) {
+        return writeBehindQueue.enqueue(summonerUpdate);
+    }
 
-        // request league data for the summoners
-        RiotApiResponse<HashMap<String, List<LeagueDto>>> leaguesResponse = riotApi.getLeagueApi().getLeagueBySummoner(summonerIds);
-        HashMap<String, List<LeagueDto>> leagues = leaguesResponse.get();
+    /**
+     * writes all summoner updates waiting in the write-behind queue and stops the queue,
+     * later updates are written right away
+     */
+    public static void shutdownWriteBehindQueue() {
+        writeBehindQueue.shutdown();
+    }
+
+    /**
+     * @return a summary of the summoners queued and written by the write-behind queue
+     */
+    public static String getWriteBehindStatistics() {
+        return writeBehindQueue.getStatistics();
+    }
+
+    /**
+     * Requests the required information (summoner, league and champion mastery data) from the riot api with the given
+     * priority and generates SummonerItems and championMasteryItems from this data without writing them to the db.
+     * the requests are planned by the call planner: the mastery score is calculated from the champion masteries and
+     * league data is only requested for level 30 summoners whose rank might have changed since it was stored
+     *
+     * @param endpoint    the endpoint the summoner ids are taken from
+     * @param priority    the priority of the riot api requests
+     * @param summonerIds the summoner ids of the summoners to be fetched
+     * @return the items to write to the db (empty if none of the summoners exists or is level 30),
+     * null if the data could not be loaded
+     */
+    public static SummonerUpdate fetchSummonerUpdate(RiotEndpoint endpoint, RequestPriority priority, Long... summonerIds) {
+        // get the riotApi for the given endpoint and priority
+        RiotApi riotApi = RiotApiFactory.getApi(endpoint, priority);
+        // request summoner data for the summoners from the riot api, the other requests are planned based on it
+        RiotApiResponse<HashMap<String, SummonerDto>> summonersResponse = riotApi.getSummonerApi().getSummonersByIds(summonerIds);
+        Map<String, SummonerDto> stringSummonerDtoMap = summonersResponse.get();
 
         // cancel if summoner data request did not return any data (none of the summoners
-        // given exits or the api is currently unavailable)
-        if (stringSummonerDtoMap == null) return;
-
-        // check if league data request was successful, if it was unsuccessful and the status code
-        // is not 404 (none of the summoners given has a rank) abort, if the status code is 404
-        // replace the league data map with an empty hashMap
-        int status = leaguesResponse.getResponse().getStatus();
-        if (status != 200 && status != 404) return;
-        if (leagues == null) leagues = new HashMap<>();
+        // given exits or the api is currently unavailable even after retrying)
+        if (stringSummonerDtoMap == null && summonersResponse.getStatus() == 404)
+            return new SummonerUpdate(new ArrayList<>(), new ArrayList<>());
+        if (stringSummonerDtoMap == null) {
+            log.warn(String.format("Could not load summoner data for %d summoners in '%s'",
+                    summonerIds.length, endpoint.name()));
+            return null;
+        }
 
         // create a list of all summoner ids of summoners that are
         // not level 30 and remove them from the map of summoner data
@@ -72,19 +148,51 @@ public class DataManager {
                 .map(Map.Entry::getKey).collect(Collectors.toList());
         removeKeys.forEach(stringSummonerDtoMap::remove);
 
-        // if no summoners remain, abort
-        if (stringSummonerDtoMap.size() == 0) return;
+        // if no summoners remain, there is nothing to write
+        if (stringSummonerDtoMap.size() == 0) return new SummonerUpdate(new ArrayList<>(), new ArrayList<>());
+
+        // request league data only for the summoners whose rank is not known
+        Map<Long, Pair<String, String>> knownRanks = callPlanner.getKnownRanks(endpoint, stringSummonerDtoMap.values());
+        Long[] leagueIds = stringSummonerDtoMap.values().stream().map(SummonerDto::getId)
+                .filter(i -> !knownRanks.containsKey(i)).toArray(Long[]::new);
+        HashMap<String, List<LeagueDto>> leagues = null;
+        if (leagueIds.length > 0) {
+            RiotApiResponse<HashMap<String, List<LeagueDto>>> leaguesResponse = riotApi.getLeagueApi().getLeagueBySummoner(leagueIds);
+            leagues = leaguesResponse.get();
+
+            // check if league data request was successful, if it was unsuccessful and the status code
+            // is not 404 (none of the summoners given has a rank) abort, if the status code is 404
+            // replace the league data map with an empty hashMap
+            int status = leaguesResponse.getStatus();
+            if (status != 200 && status != 404) {
+                log.warn(String.format("Could not load league data for %d summoners in '%s' (status %d)",
+                        leagueIds.length, endpoint.name(), status));
+                return null;
+            }
+        }
+        if (leagues == null) leagues = new HashMap<>();
 
 
         HashMap<String, List<LeagueDto>> finalLeagues = leagues;
 
+        // send the champion mastery requests for all summoners at once
+        // (only limited by the rate limiter) and wait for all of them to finish
+        Map<Long, RiotApiResponse<List<ChampionMasteryDto>>> masteryResponses = new HashMap<>();
+        stringSummonerDtoMap.values().stream().map(SummonerDto::getId).forEach(id ->
+                masteryResponses.put(id, riotApi.getChampionMasteryApi().getSummonersChampionMastery(id)));
+        CompletableFuture.allOf(masteryResponses.values().toArray(new CompletableFuture<?>[masteryResponses.size()]))
+                .exceptionally(e -> null).join();
+
         // iterate over all summoners and generate summoner items to be written to the db
         List<SummonerItem> summonerItems = stringSummonerDtoMap.values().stream().map(s -> {
-            // request and save league data
+            // use the known rank or the league data
             String tier = "null";
             String division = "null";
             long id = s.getId();
-            if (finalLeagues.containsKey(String.valueOf(id))) {
+            if (knownRanks.containsKey(id)) {
+                tier = knownRanks.get(id).getKey();
+                division = knownRanks.get(id).getValue();
+            } else if (finalLeagues.containsKey(String.valueOf(id))) {
                 List<LeagueDto> leagueDtos = finalLeagues.get(String.valueOf(id));
                 LeagueDto leagueDto = leagueDtos.stream()
                         .filter(l -> "RANKED_SOLO_5x5".equals(l.getQueue())).findFirst().orElse(null);
@@ -97,8 +205,8 @@ public class DataManager {
                 }
             }
 
-            Integer score = riotApi.getChampionMasteryApi().getSummonersChampionMasteryScore(id).get();
-            if (score == null) score = 0;
+            // the mastery score is the sum of all champion levels
+            int score = SummonerCallPlanner.calculateScore(masteryResponses.get(id).get());
 
             // create new SummonerItem and add data
             SummonerItem summonerItem = new SummonerItem();
@@ -116,8 +224,8 @@ public class DataManager {
 
         // iterate over all summoners sets and generate champion mastery items to be written to the db
         List<ChampionMasteryItem> masteryItems = stringSummonerDtoMap.values().stream().map(SummonerDto::getId)
-                // get each summoner's id and request champion mastery data
-                .map(summonerId -> riotApi.getChampionMasteryApi().getSummonersChampionMastery(summonerId).get())
+                // get each summoner's id and the champion mastery data received
+                .map(summonerId -> masteryResponses.get(summonerId).get())
                 // remove empty and null responses
                 .filter(ms -> ms != null)
                 .filter(ms -> ms.size() > 0)
@@ -140,32 +248,113 @@ public class DataManager {
                         )
                 ).collect(Collectors.toList());
 
-        log.info(String.format("Adding %d summoners with champion mastery information (%d) to the database",
-                summonerItems.size(), masteryItems.size()));
+        callPlanner.recordIngest(summonerIds.length, summonerItems.size(), leagueIds.length);
+        return new SummonerUpdate(summonerItems, masteryItems);
+    }
 
-        // write all summoner and champion mastery items to the db
-        // the summoners in an external thread and champion mastery in main thread to use
-        // the write capacity of both tables
+    /**
+     * writes the summoner and champion mastery items of a summoner update to the db.
+     * the match cursor (last match time) of summoners is only overwritten if it is set in the summoner item.
+     * only new and changed champion mastery items are written. called by the threads of the write-behind queue
+     *
+     * @param summonerUpdate the items to write
+     */
+    private static void writeSummonerUpdate(SummonerUpdate summonerUpdate) {
+        List<SummonerItem> summonerItems = summonerUpdate.getSummonerItems();
+        List<ChampionMasteryItem> masteryItems = filterChangedMasteryItems(summonerUpdate.getMasteryItems());
+        log.info(String.format("Adding %d summoners with champion mastery information (%d of %d changed) to the database",
+                summonerItems.size(), masteryItems.size(), summonerUpdate.getMasteryItems().size()));
+
+        // write all summoner and champion mastery items to the db, the write capacity of both tables is used
+        // by the threads of the write-behind queue writing at the same time. summoners are saved one by one,
+        // as batch writes replace the whole item and would remove the match cursor of summoners whose cursor
+        // is not known
         DynamoDBMapper dynamoDBMapper = DBConnector.getInstance().getDynamoDBMapper();
-        Thread summonerWrite = new Thread(() ->
-                summonerItems.forEach(i -> {
-                    DBTable.SUMMONER.getWriteLimiter().acquire();
-                    dynamoDBMapper.save(i);
-                }));
-        summonerWrite.setName("summonerToDbSummonerWriteThread");
-        summonerWrite.start();
-
-        masteryItems.forEach(i -> {
-            DBTable.CHAMPION_MASTERY.getWriteLimiter().acquire();
-            dynamoDBMapper.save(i);
+        summonerItems.forEach(i -> {
+            DBTable.SUMMONER.acquireWrite();
+            dynamoDBMapper.save(i, SKIP_NULL_CONFIG);
+            updateFreshnessIndex(i);
         });
 
-        // wait for the summoner thread to finish
-        try {
-            summonerWrite.join();
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        BatchWriter.getInstance().save(masteryItems);
+    }
+
+    /**
+     * compares champion mastery items with the items stored in the db (one query per summoner, which
+     * uses far less capacity than writing all items) and returns the items which are new or changed
+     *
+     * @param masteryItems the champion mastery items to write
+     * @return the champion mastery items which differ from the stored items
+     */
+    private static List<ChampionMasteryItem> filterChangedMasteryItems(List<ChampionMasteryItem> masteryItems) {
+        Map<String, List<ChampionMasteryItem>> bySummoner = masteryItems.stream()
+                .collect(Collectors.groupingBy(ChampionMasteryItem::getSummonerKey));
+        List<ChampionMasteryItem> changed = new ArrayList<>();
+        bySummoner.forEach((summonerKey, items) -> {
+            Set<ChampionMasteryItem> stored = new HashSet<>(queryChampionMasteries(summonerKey));
+            items.stream().filter(i -> !stored.contains(i)).forEach(changed::add);
+        });
+        writtenMasteryItems.addAndGet(changed.size());
+        unchangedMasteryItems.addAndGet(masteryItems.size() - changed.size());
+        return changed;
+    }
+
+    /**
+     * @return a summary of the champion mastery items written and skipped because they did not change
+     */
+    public static String getMasteryWriteStatistics() {
+        long written = writtenMasteryItems.get();
+        long unchanged = unchangedMasteryItems.get();
+        return String.format("Champion mastery writes: %d written, %d unchanged items skipped (%.1f%% saved)",
+                written, unchanged, written + unchanged == 0 ? 0 : 100.0 * unchanged / (written + unchanged));
+    }
+
+    /**
+     * sets the last update time of the summoners given to now without changing any other attribute,
+     * used for summoners which did not change since their last update
+     *
+     * @param items the summoner items to touch
+     */
+    public static void touchSummonersInDb(SummonerItem... items) {
+        Table table = DBConnector.getInstance().getDynamoDB().getTable(DBTable.SUMMONER.getTableName());
+        Arrays.asList(items).forEach(i -> {
+            i.setLastUpdated(System.currentTimeMillis());
+            DBTable.SUMMONER.acquireWrite();
+            try {
+                // the condition prevents creating an incomplete item if the summoner was deleted or renamed meanwhile
+                table.updateItem(new UpdateItemSpec()
+                        .withPrimaryKey("summonerKey", i.getSummonerKey(), "summonerName", i.getSummonerName())
+                        .withUpdateExpression("set lastUpdated = :lu")
+                        .withConditionExpression("attribute_exists(summonerKey)")
+                        .withValueMap(new ValueMap().withLong(":lu", i.getLastUpdated())));
+                updateFreshnessIndex(i);
+            } catch (ConditionalCheckFailedException e) {
+                log.info(String.format("Summoner %s was removed before being touched", i.getSummonerKey()));
+            }
+        });
+    }
+
+    /**
+     * stores the last update time, revision date and rank of a summoner in the freshness index
+     *
+     * @param summonerItem the summoner
+     */
+    private static void updateFreshnessIndex(SummonerItem summonerItem) {
+        SummonerKey summonerKey = summonerKeyToIdRegion(summonerItem.getSummonerKey());
+        freshnessIndex.put(summonerKey.getId(), summonerKey.getRegion(), summonerItem.getLastUpdated(),
+                summonerItem.getRevisionDate(), summonerItem.getTier(), summonerItem.getDivision());
+    }
+
+    /**
+     * checks whether a summoner was written to the db within the up-to-date duration using the freshness index
+     * (without reading the db)
+     *
+     * @param summonerId the summoner id
+     * @param endpoint   the region of the summoner
+     * @return true if the summoner is known to be up to date
+     */
+    public static boolean isSummonerUpToDate(long summonerId, RiotEndpoint endpoint) {
+        return System.currentTimeMillis() - freshnessIndex.get(summonerId, endpoint) < UP_TO_DATE_DURATION;
     }
 
     /**
@@ -230,15 +419,11 @@ public class DataManager {
         log.info(String.format("Adding %d champions to the database (%s)", championItems.size(),
                 championItems.stream().map(ChampionItem::getKeyName)
                         .collect(Collectors.joining("', '", "'", "'"))));
-        DynamoDBMapper dynamoDBMapper = DBConnector.getInstance().getDynamoDBMapper();
-        championItems.forEach(i -> {
-            DBTable.CHAMPION.getWriteLimiter().acquire();
-            dynamoDBMapper.save(i);
-        });
+        BatchWriter.getInstance().save(championItems);
     }
 
     /**
-     * Returns a map of summoners to be updated next for each region
+     * Returns a map of summoners to be updated next for each region, used while the crawl frontier is empty
      *
      * @param batchSize the number of summoners to search
      * @return a map of summoners for each region which should be updated next
@@ -281,19 +466,61 @@ public class DataManager {
         return summoners;
     }
 
+    /**
+     * Returns the summoners of a region to be updated next from the crawl frontier: summoners searched recently
+     * and the stalest summoners found by the last frontier scan which were not updated since
+     *
+     * @param endpoint  the region
+     * @param batchSize the maximum number of summoners to return
+     * @return the summoners to update next, empty if the frontier of the region is empty
+     */
+    public static List<SummonerItem> getNextUpdateSummoners(RiotEndpoint endpoint, int batchSize) {
+        return crawlFrontier.poll(endpoint, batchSize,
+                s -> freshnessIndex.get(summonerKeyToIdRegion(s.getSummonerKey()).getId(), endpoint) <= s.getLastUpdated());
+    }
+
+    /**
+     * scans the summoner table and publishes the stalest summoners of each region to the crawl frontier
+     */
+    public static void scanCrawlFrontier() {
+        log.info("Scanning summoners for the crawl frontier");
+        scanPages(SummonerItem.class, new DynamoDBScanExpression(), DBTable.SUMMONER.getReadLimiter(), s -> {
+            updateFreshnessIndex(s);
+            crawlFrontier.offer(s);
+        });
+        crawlFrontier.publish();
+    }
+
+    /**
+     * @return the planner of the requests needed to ingest summoners, holding the number of requests saved
+     */
+    public static SummonerCallPlanner getCallPlanner() {
+        return callPlanner;
+    }
+
+    /**
+     * @return the number of summoners in the crawl frontier
+     */
+    public static int getCrawlFrontierSize() {
+        return crawlFrontier.size();
+    }
+
     /**
      * deletes the summoners given from the db
      *
      * @param items the summoner items to delete
      */
     public static void deleteSummonersFromDb(SummonerItem... items) {
-        DynamoDBMapper dynamoDBMapper = DBConnector.getInstance().getDynamoDBMapper();
-        // iterate over all summoner items and delete the summoner form the db
-        Arrays.asList(items).forEach(i -> {
-            DBTable.SUMMONER.getWriteLimiter().acquire();
-            dynamoDBMapper.delete(i);
+        // drop their pending writes and wait for their writes in progress, so the summoners are not written again
+        // after being deleted (summoners still being written when interrupted are not deleted), then delete the
+        // summoners in batches and remove them from the freshness index
+        List<SummonerItem> deleteItems = Arrays.stream(items)
+                .filter(i -> writeBehindQueue.discard(i.getSummonerKey())).collect(Collectors.toList());
+        BatchWriter.getInstance().delete(deleteItems);
+        deleteItems.forEach(i -> {
+            SummonerKey summonerKey = summonerKeyToIdRegion(i.getSummonerKey());
+            freshnessIndex.remove(summonerKey.getId(), summonerKey.getRegion());
         });
-
     }
 
     /**
@@ -516,21 +743,9 @@ public class DataManager {
         });
 
         // save ChampionStatisticItem instance to dynamoDB and local statistics cache
-        championStatistics.values().forEach(e -> {
-            boolean retry = true;
-            // if the throughput is exceeded, retry
-            while (retry) {
-                try {
-                    DBTable.CHAMPION_STATISTIC.getWriteLimiter().acquire();
-                    dynamoDBMapper.save(e);
-                    retry = false;
-                } catch (ProvisionedThroughputExceededException exception) {
-                    retry = true;
-                    log.info("exceeded provisioned throughput");
-                }
-            }
-            PageDataProvider.championStatisticMap.put(e.getKeyName().toLowerCase(), e);
-        });
+        // throttled items are retried by the batch writer
+        BatchWriter.getInstance().save(new ArrayList<>(championStatistics.values()));
+        championStatistics.values().forEach(e -> PageDataProvider.championStatisticMap.put(e.getKeyName().toLowerCase(), e));
 
         log.info(String.format("Generated and saved champion statistics for %d champions" +
                         "(%d/%d entries were used, %d searches were needed, %f read capacity units were consumed)",
@@ -564,6 +779,9 @@ public class DataManager {
 
         // iterate over all summoners in the db and analyze the data
         scanPages(SummonerItem.class, new DynamoDBScanExpression(), DBTable.SUMMONER.getReadLimiter(), (s) -> {
+            // fill the freshness index with the summoners scanned
+            updateFreshnessIndex(s);
+
             // get summoners region
             String region = summonerKeyToIdRegion(s.getSummonerKey()).getRegion().name();
 
@@ -596,7 +814,7 @@ public class DataManager {
 
         // save the statistic to the db
         DynamoDBMapper dynamoDBMapper = DBConnector.getInstance().getDynamoDBMapper();
-        DBTable.SUMMONER_STATISTIC.getWriteLimiter().acquire();
+        DBTable.SUMMONER_STATISTIC.acquireWrite();
         dynamoDBMapper.save(item);
 
         PageDataProvider.overallSummonerStatisticItem = item;
@@ -689,26 +907,27 @@ public class DataManager {
             return summonerStatisticItem;
         }
 
-        // otherwise the summoner table is queried for the matching summoner item
-        SummonerItem summonerItem;
-        PaginatedQueryList<SummonerItem> summonerItemQuery = dynamoDBMapper.query(SummonerItem.class,
-                new DynamoDBQueryExpression<SummonerItem>()
-                        .withKeyConditionExpression("summonerKey = :sk")
-                        .withExpressionAttributeValues(expressionAttributeValues));
-
+        // otherwise the summoner item waiting in the write-behind queue or stored in the summoner table is used.
+        // the queue is checked first, so a summoner written meanwhile is found in the table
+        SummonerItem summonerItem = writeBehindQueue.getSummoner(summonerKey);
+        if (summonerItem == null) summonerItem = querySummonerItem(expressionAttributeValues);
 
         // if the the summoner data is older than the up-to-date duration or non-existent they and
-        // their champion mastery data are added to the db and loaded
-        summonerItem = summonerItemQuery.stream().findFirst().orElse(null);
+        // their champion mastery data are fetched and queued to be added to the db
         if (summonerItem == null ||
                 System.currentTimeMillis() - summonerItem.getLastUpdated() > UP_TO_DATE_DURATION) {
             saveSummonersToDb(region, summonerDto.getId());
+            SummonerItem queuedItem = writeBehindQueue.getSummoner(summonerKey);
+            if (queuedItem == null) queuedItem = querySummonerItem(expressionAttributeValues);
+            if (queuedItem != null) summonerItem = queuedItem;
         }
 
-        if (summonerItem == null) summonerItem = summonerItemQuery.stream().findFirst().orElse(null);
         // if adding the summoner failed (api or db is unavailable or summoner does not exists)return null
         if (summonerItem == null) return null;
 
+        // boost the summoner in the crawl frontier, so the summoners of their matches are crawled soon
+        crawlFrontier.boost(summonerItem);
+
         // create new summoner statistic and initialize it with basic data
         summonerStatisticItem = new SummonerStatisticItem();
 
@@ -717,12 +936,54 @@ public class DataManager {
         summonerStatisticItem.setChampionMasteries(new ArrayList<>());
         summonerStatisticItem.setSummonerItem(summonerItem);
 
+        // add the summoners champion mastery items to summoner statistic, the items waiting in the write-behind
+        // queue replace the stored items of their champions (taken before the query, in case they are written meanwhile)
+        List<ChampionMasteryItem> queuedMasteries = writeBehindQueue.getMasteries(summonerKey);
+        Map<Long, ChampionMasteryItem> masteries = new LinkedHashMap<>();
+        queryChampionMasteries(summonerKey).forEach(m -> masteries.put(m.getChampionId(), m));
+        queuedMasteries.forEach(m -> masteries.put(m.getChampionId(), m));
+        summonerStatisticItem.getChampionMasteries().addAll(masteries.values());
+
+        // set last updated of summoner statistic to current time
+        summonerStatisticItem.setLastUpdated(System.currentTimeMillis());
+
+        // save summoner statistic to db and return it
+        dynamoDBMapper.save(summonerStatisticItem);
+        return summonerStatisticItem;
+    }
+
+    /**
+     * queries the summoner item of a summoner from the summoner table
+     *
+     * @param expressionAttributeValues the expression attribute values with the summoners key as :sk
+     * @return the summoner item, null if the summoner is not stored
+     */
+    private static SummonerItem querySummonerItem(HashMap<String, AttributeValue> expressionAttributeValues) {
+        return DBConnector.getInstance().getDynamoDBMapper().query(SummonerItem.class,
+                new DynamoDBQueryExpression<SummonerItem>()
+                        .withKeyConditionExpression("summonerKey = :sk")
+                        .withExpressionAttributeValues(expressionAttributeValues))
+                .stream().findFirst().orElse(null);
+    }
+
+    /**
+     * queries all champion mastery items of a summoner page by page, using the read limiter of the table
+     *
+     * @param summonerKey the summoners key
+     * @return the champion mastery items stored for the summoner
+     */
+    private static List<ChampionMasteryItem> queryChampionMasteries(String summonerKey) {
+        HashMap<String, AttributeValue> expressionAttributeValues = new HashMap<>();
+        expressionAttributeValues.put(":sk", new AttributeValue().withS(summonerKey));
+        DynamoDBMapper dynamoDBMapper = DBConnector.getInstance().getDynamoDBMapper();
+
         // prepare a query for the summoners champion mastery data
         DynamoDBQueryExpression<ChampionMasteryItem> masteryScan = new DynamoDBQueryExpression<ChampionMasteryItem>()
                 .withKeyConditionExpression("summonerKey = :sk")
                 .withExpressionAttributeValues(expressionAttributeValues)
                 .withReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
         QueryResultPage<ChampionMasteryItem> pageQuery;
+        List<ChampionMasteryItem> masteries = new ArrayList<>();
 
         int permitsToConsume = 1;
         do {
@@ -731,22 +992,32 @@ public class DataManager {
             // execute query page by page and update page-start as it goes
             pageQuery = dynamoDBMapper.queryPage(ChampionMasteryItem.class, masteryScan);
             masteryScan.setExclusiveStartKey(pageQuery.getLastEvaluatedKey());
-
-            // add champion mastery items to summoner statistic
-            summonerStatisticItem.getChampionMasteries().addAll(pageQuery.getResults());
+            masteries.addAll(pageQuery.getResults());
 
             // calculate permits for next query
             Double capacityUnits = pageQuery.getConsumedCapacity().getCapacityUnits();
             permitsToConsume = (int) (capacityUnits - 1);
             if (permitsToConsume <= 0) permitsToConsume = 1;
         } while (pageQuery.getLastEvaluatedKey() != null);
+        return masteries;
+    }
 
-        // set last updated of summoner statistic to current time
-        summonerStatisticItem.setLastUpdated(System.currentTimeMillis());
-
-        // save summoner statistic to db and return it
-        dynamoDBMapper.save(summonerStatisticItem);
-        return summonerStatisticItem;
+    /**
+     * loads the summoner statistic stored in the db for the given summoner regardless of its age,
+     * used when the riot api is not available to generate a new one
+     *
+     * @param summonerKey the summoners key
+     * @return the stored statistic, null if none is stored
+     */
+    public static SummonerStatisticItem getStoredSummonerStatistic(String summonerKey) {
+        HashMap<String, AttributeValue> expressionAttributeValues = new HashMap<>();
+        expressionAttributeValues.put(":sk", new AttributeValue(summonerKey));
+        DynamoDBMapper dynamoDBMapper = DBConnector.getInstance().getDynamoDBMapper();
+        return dynamoDBMapper.query(SummonerStatisticItem.class,
+                new DynamoDBQueryExpression<SummonerStatisticItem>()
+                        .withKeyConditionExpression("summonerKey = :sk")
+                        .withExpressionAttributeValues(expressionAttributeValues))
+                .stream().findFirst().orElse(null);
     }
 
     /**
@@ -762,11 +1033,7 @@ public class DataManager {
                     if (System.currentTimeMillis() - s.getLastUpdated() > UP_TO_DATE_DURATION) toDelete.add(s);
                 });
 
-        // iterate over all statistics to be deleted and delete them
-        DynamoDBMapper dynamoDBMapper = DBConnector.getInstance().getDynamoDBMapper();
-        toDelete.forEach(s -> {
-            DBTable.CHAMPION_STATISTIC.getWriteLimiter().acquire();
-            dynamoDBMapper.delete(s);
-        });
+        // delete all statistics to be deleted in batches
+        BatchWriter.getInstance().delete(toDelete);
     }
 }
@@ -0,0 +1,197 @@
+package com.lvack.MasterStats.Db;
+
+import com.lvack.MasterStats.Api.StaticData.RiotEndpoint;
+import com.lvack.MasterStats.Util.Pair;
+
+import java.util.Arrays;
+
+/**
+ * FreshnessIndexClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * compact in-memory index of the time the summoners were last written to the db, used by the crawler to skip
+ * summoners updated recently without reading the db. the index is a primitive open addressing hash map with
+ * linear probing from (summoner id, region) to the minute of the last update, so an entry takes about
+ * 20 bytes instead of the hundreds of bytes of a HashMap with a summoner key string.
+ * the revision date and the rank (tier and division) stored with the last update are kept as well (5 more bytes),
+ * so the rank of summoners whose revision date did not change is known without requesting their league data
+ */
+public class FreshnessIndex {
+    private static final int INITIAL_CAPACITY = 1 << 16;
+    private static final double MAX_LOAD = 0.6;
+    // 0 is used to mark empty slots, so stored keys are never 0
+    private static final long EMPTY = 0;
+    private static final long MILLIS_PER_MINUTE = 60 * 1000;
+    // known tiers and divisions ("null" if unranked), a rank is stored as 1 + tier index * 6 + division index
+    private static final String[] TIERS = new String[]{"null", "BRONZE", "SILVER", "GOLD", "PLATINUM", "DIAMOND",
+            "MASTER", "CHALLENGER"};
+    private static final String[] DIVISIONS = new String[]{"null", "I", "II", "III", "IV", "V"};
+    // 0 is used to mark unknown ranks
+    private static final byte UNKNOWN_RANK = 0;
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[] minutes = new int[INITIAL_CAPACITY];
+    // the lower 32 bits of the revision dates
+    private int[] revisions = new int[INITIAL_CAPACITY];
+    private byte[] ranks = new byte[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * combines summoner id and region to a key, the region ordinal takes the lowest 4 bits
+     *
+     * @param summonerId the summoner id
+     * @param endpoint   the region of the summoner
+     * @return the key, never 0
+     */
+    private static long toKey(long summonerId, RiotEndpoint endpoint) {
+        return (summonerId << 4 | endpoint.ordinal()) + 1;
+    }
+
+    /**
+     * spreads the bits of a key, so consecutive summoner ids do not end up in consecutive slots
+     *
+     * @param key the key
+     * @return the hash of the key
+     */
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ h >>> 32);
+    }
+
+    /**
+     * returns the slot of a key or the empty slot it would be stored in
+     *
+     * @param key the key
+     * @return the slot index
+     */
+    private int findSlot(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) slot = slot + 1 & mask;
+        return slot;
+    }
+
+    /**
+     * packs tier and division to a rank
+     *
+     * @param tier     the tier
+     * @param division the division
+     * @return the rank, UNKNOWN_RANK if tier or division are not known
+     */
+    private static byte toRank(String tier, String division) {
+        int t = Arrays.asList(TIERS).indexOf(tier);
+        int d = Arrays.asList(DIVISIONS).indexOf(division);
+        return t < 0 || d < 0 ? UNKNOWN_RANK : (byte) (1 + t * DIVISIONS.length + d);
+    }
+
+    /**
+     * stores the time a summoner was last written to the db with the revision date and rank written
+     *
+     * @param summonerId   the summoner id
+     * @param endpoint     the region of the summoner
+     * @param lastUpdated  the time of the update in milliseconds
+     * @param revisionDate the revision date of the summoner
+     * @param tier         the tier of the summoner
+     * @param division     the division of the summoner
+     */
+    public synchronized void put(long summonerId, RiotEndpoint endpoint, long lastUpdated, long revisionDate,
+                                 String tier, String division) {
+        long key = toKey(summonerId, endpoint);
+        int slot = findSlot(key);
+        if (keys[slot] == EMPTY) {
+            if (size + 1 > keys.length * MAX_LOAD) {
+                resize();
+                slot = findSlot(key);
+            }
+            keys[slot] = key;
+            size++;
+        }
+        minutes[slot] = (int) (lastUpdated / MILLIS_PER_MINUTE);
+        revisions[slot] = (int) revisionDate;
+        ranks[slot] = toRank(tier, division);
+    }
+
+    /**
+     * returns the time a summoner was last written to the db
+     *
+     * @param summonerId the summoner id
+     * @param endpoint   the region of the summoner
+     * @return the time of the last update in milliseconds (to the minute), 0 if it is not known
+     */
+    public synchronized long get(long summonerId, RiotEndpoint endpoint) {
+        int slot = findSlot(toKey(summonerId, endpoint));
+        return keys[slot] == EMPTY ? 0 : minutes[slot] * MILLIS_PER_MINUTE;
+    }
+
+    /**
+     * returns the rank of a summoner if their revision date did not change since it was stored,
+     * so the rank can not have changed either
+     *
+     * @param summonerId   the summoner id
+     * @param endpoint     the region of the summoner
+     * @param revisionDate the current revision date of the summoner
+     * @return pair of tier and division, null if the rank is not known or the revision date changed
+     */
+    public synchronized Pair<String, String> getRank(long summonerId, RiotEndpoint endpoint, long revisionDate) {
+        int slot = findSlot(toKey(summonerId, endpoint));
+        if (keys[slot] == EMPTY || ranks[slot] == UNKNOWN_RANK || revisions[slot] != (int) revisionDate) return null;
+        int rank = ranks[slot] - 1;
+        return new Pair<>(TIERS[rank / DIVISIONS.length], DIVISIONS[rank % DIVISIONS.length]);
+    }
+
+    /**
+     * removes a summoner, shifting back the following entries of the probe sequence so no tombstones are needed
+     *
+     * @param summonerId the summoner id
+     * @param endpoint   the region of the summoner
+     */
+    public synchronized void remove(long summonerId, RiotEndpoint endpoint) {
+        int slot = findSlot(toKey(summonerId, endpoint));
+        if (keys[slot] == EMPTY) return;
+        int mask = keys.length - 1;
+        int next = slot;
+        while (true) {
+            next = next + 1 & mask;
+            if (keys[next] == EMPTY) break;
+            int home = hash(keys[next]) & mask;
+            // move the entry back if its home slot is not between the free slot and its current slot
+            if (slot <= next ? home <= slot || home > next : home <= slot && home > next) {
+                keys[slot] = keys[next];
+                minutes[slot] = minutes[next];
+                revisions[slot] = revisions[next];
+                ranks[slot] = ranks[next];
+                slot = next;
+            }
+        }
+        keys[slot] = EMPTY;
+        size--;
+    }
+
+    /**
+     * doubles the capacity and inserts all entries again
+     */
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldMinutes = minutes;
+        int[] oldRevisions = revisions;
+        byte[] oldRanks = ranks;
+        keys = new long[oldKeys.length * 2];
+        minutes = new int[oldKeys.length * 2];
+        revisions = new int[oldKeys.length * 2];
+        ranks = new byte[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+            int slot = findSlot(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            minutes[slot] = oldMinutes[i];
+            revisions[slot] = oldRevisions[i];
+            ranks[slot] = oldRanks[i];
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
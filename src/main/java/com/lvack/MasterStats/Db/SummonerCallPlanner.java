@@ -0,0 +1,110 @@
+package com.lvack.MasterStats.Db;
+
+import com.lvack.MasterStats.Api.ResponseClasses.ChampionMasteryDto;
+import com.lvack.MasterStats.Api.ResponseClasses.SummonerDto;
+import com.lvack.MasterStats.Api.StaticData.RiotEndpoint;
+import com.lvack.MasterStats.Util.Pair;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SummonerCallPlannerClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * plans the riot api requests needed to ingest summoners, so data which can be derived locally is not requested.
+ * the mastery score is the sum of the champion levels of the champion masteries, which are requested anyway,
+ * and the league data is only requested for summoners whose revision date changed since their rank was stored
+ * (the rank can only change with a ranked game, which changes the revision date as well).
+ * the requests saved compared to requesting everything are counted
+ */
+public class SummonerCallPlanner {
+    // number of summoner ids per league request
+    private static final int LEAGUE_IDS_PER_REQUEST = 10;
+    private final FreshnessIndex freshnessIndex;
+    private final AtomicLong ingested = new AtomicLong();
+    private final AtomicLong savedScoreCalls = new AtomicLong();
+    private final AtomicLong savedLeagueCalls = new AtomicLong();
+
+    /**
+     * @param freshnessIndex the index holding the revision date and rank of the summoners last written to the db
+     */
+    SummonerCallPlanner(FreshnessIndex freshnessIndex) {
+        this.freshnessIndex = freshnessIndex;
+    }
+
+    /**
+     * returns the ranks of the summoners which can not have changed since they were written to the db,
+     * league data only has to be requested for the other summoners
+     *
+     * @param endpoint  the region of the summoners
+     * @param summoners the current summoner data
+     * @return map of summoner ids to pairs of tier and division
+     */
+    Map<Long, Pair<String, String>> getKnownRanks(RiotEndpoint endpoint, Collection<SummonerDto> summoners) {
+        Map<Long, Pair<String, String>> ranks = new HashMap<>();
+        summoners.forEach(s -> {
+            Pair<String, String> rank = freshnessIndex.getRank(s.getId(), endpoint, s.getRevisionDate());
+            if (rank != null) ranks.put(s.getId(), rank);
+        });
+        return ranks;
+    }
+
+    /**
+     * calculates the mastery score of a summoner
+     *
+     * @param masteries the champion masteries of the summoner
+     * @return the sum of the champion levels, 0 if the champion masteries are not known
+     */
+    static int calculateScore(List<ChampionMasteryDto> masteries) {
+        if (masteries == null) return 0;
+        return masteries.stream().mapToInt(ChampionMasteryDto::getChampionLevel).sum();
+    }
+
+    /**
+     * counts the requests saved by ingesting summoners
+     *
+     * @param requestedIds the number of summoner ids requested, league data used to be requested for all of them
+     * @param summoners    the number of summoners ingested, the mastery score used to be requested for each of them
+     * @param leagueIds    the number of summoner ids league data was requested for
+     */
+    void recordIngest(int requestedIds, int summoners, int leagueIds) {
+        ingested.addAndGet(summoners);
+        savedScoreCalls.addAndGet(summoners);
+        savedLeagueCalls.addAndGet(requests(requestedIds) - requests(leagueIds));
+    }
+
+    private static int requests(int ids) {
+        return (ids + LEAGUE_IDS_PER_REQUEST - 1) / LEAGUE_IDS_PER_REQUEST;
+    }
+
+    /**
+     * @return the number of summoners ingested
+     */
+    public long getIngested() {
+        return ingested.get();
+    }
+
+    /**
+     * @return the number of requests saved per ingested summoner
+     */
+    public double getSavedCallsPerSummoner() {
+        long summoners = ingested.get();
+        return summoners == 0 ? 0 : (double) (savedScoreCalls.get() + savedLeagueCalls.get()) / summoners;
+    }
+
+    /**
+     * @return a summary of the requests saved
+     */
+    public String getStatistics() {
+        return String.format("Summoner call planner: %d summoners ingested, %d score and %d league requests saved " +
+                        "(%.2f per summoner)", ingested.get(), savedScoreCalls.get(), savedLeagueCalls.get(),
+                getSavedCallsPerSummoner());
+    }
+}
@@ -0,0 +1,24 @@
+package com.lvack.MasterStats.Db;
+
+import com.lvack.MasterStats.Db.DataClasses.ChampionMasteryItem;
+import com.lvack.MasterStats.Db.DataClasses.SummonerItem;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * SummonerUpdateClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * the summoner and champion mastery items of summoners fetched from the riot api, waiting to be written to the db
+ */
+@Data
+@AllArgsConstructor
+public class SummonerUpdate {
+    private List<SummonerItem> summonerItems;
+    private List<ChampionMasteryItem> masteryItems;
+}
@@ -0,0 +1,339 @@
+package com.lvack.MasterStats.Db;
+
+import com.lvack.MasterStats.Db.DataClasses.ChampionMasteryItem;
+import com.lvack.MasterStats.Db.DataClasses.SummonerItem;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * WriteBehindQueueClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * bounded queue of summoner updates waiting to be written to the db, drained by a fixed number of worker threads,
+ * so neither the crawler nor user lookups wait for the db. the pending writes are kept per summoner and a newer
+ * update of a summoner replaces the pending one (the champion masteries are merged by champion), so a summoner is
+ * written once no matter how often it was updated while waiting. writes of the same summoner are never
+ * in progress at the same time, so they reach the db in order.
+ * until they are written, the pending summoner and champion mastery items can be read from the queue.
+ * failed writes are queued again with an exponential backoff (merged into a newer pending write of the summoner)
+ * and only fail after several attempts.
+ * the queue is flushed when the application shuts down, later writes are written right away
+ */
+@Slf4j
+public class WriteBehindQueue {
+    // maximum number of summoners written by a worker at once
+    private static final int DRAIN_SIZE = 10;
+    // number of attempts after which a write fails
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MILLIS = 1000;
+    private final int capacity;
+    private final int threads;
+    private final Consumer<SummonerUpdate> writer;
+    // the pending writes by summoner key in the order they were queued
+    private final LinkedHashMap<String, PendingWrite> pending = new LinkedHashMap<>();
+    // the writes currently written by a worker by summoner key
+    private final Map<String, PendingWrite> writing = new HashMap<>();
+    private List<Thread> workers = null;
+    private boolean shutdown = false;
+    private long queued = 0;
+    private long coalesced = 0;
+    private long written = 0;
+    private long retried = 0;
+    private long failed = 0;
+
+    /**
+     * @param capacity the maximum number of summoners waiting to be written
+     * @param threads  the number of worker threads
+     * @param writer   writes the items of summoners to the db
+     */
+    WriteBehindQueue(int capacity, int threads, Consumer<SummonerUpdate> writer) {
+        this.capacity = capacity;
+        this.threads = threads;
+        this.writer = writer;
+    }
+
+    /**
+     * queues the summoner and champion mastery items of a summoner update to be written, blocking while the queue
+     * is full. the summoners of the update not queued before the queue was shut down are written right away
+     *
+     * @param summonerUpdate the items to write
+     * @return a future completed once all summoners of the update are written (or replaced by a newer update
+     * which was written), completed exceptionally if the write failed
+     */
+    CompletableFuture<Void> enqueue(SummonerUpdate summonerUpdate) {
+        Map<String, List<ChampionMasteryItem>> masteries = summonerUpdate.getMasteryItems().stream()
+                .collect(Collectors.groupingBy(ChampionMasteryItem::getSummonerKey));
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        List<SummonerItem> writeNow = new ArrayList<>();
+        synchronized (this) {
+            if (!shutdown) startWorkers();
+            for (SummonerItem summonerItem : summonerUpdate.getSummonerItems()) {
+                String summonerKey = summonerItem.getSummonerKey();
+                try {
+                    while (!shutdown && pending.size() >= capacity && !pending.containsKey(summonerKey)) wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    CompletableFuture<Void> interrupted = new CompletableFuture<>();
+                    interrupted.completeExceptionally(e);
+                    futures.add(interrupted);
+                    break;
+                }
+                // the workers may already be stopped, so the summoner is written right away
+                if (shutdown) {
+                    writeNow.add(summonerItem);
+                    continue;
+                }
+                PendingWrite write = pending.computeIfAbsent(summonerKey, k -> new PendingWrite(summonerItem));
+                if (write.summonerItem != summonerItem) {
+                    // keep the match cursor of the pending write if the new item does not know it
+                    if (summonerItem.getLastMatchTime() == null)
+                        summonerItem.setLastMatchTime(write.summonerItem.getLastMatchTime());
+                    write.summonerItem = summonerItem;
+                    coalesced++;
+                }
+                masteries.getOrDefault(summonerKey, Collections.emptyList())
+                        .forEach(m -> write.masteryItems.put(m.getChampionId(), m));
+                futures.add(write.future);
+                queued++;
+            }
+            notifyAll();
+        }
+        if (!writeNow.isEmpty()) futures.add(write(new SummonerUpdate(writeNow, writeNow.stream()
+                .flatMap(i -> masteries.getOrDefault(i.getSummonerKey(), Collections.emptyList()).stream())
+                .collect(Collectors.toList()))));
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]));
+    }
+
+    /**
+     * writes a summoner update right away on the calling thread
+     *
+     * @param summonerUpdate the items to write
+     * @return a completed future, completed exceptionally if the write failed
+     */
+    private CompletableFuture<Void> write(SummonerUpdate summonerUpdate) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            writer.accept(summonerUpdate);
+            future.complete(null);
+        } catch (RuntimeException e) {
+            // if something goes wrong, print the stacktrace for later investigation
+            e.printStackTrace();
+            future.completeExceptionally(e);
+        }
+        synchronized (this) {
+            if (future.isCompletedExceptionally()) failed += summonerUpdate.getSummonerItems().size();
+            else written += summonerUpdate.getSummonerItems().size();
+        }
+        return future;
+    }
+
+    private void startWorkers() {
+        if (workers != null) return;
+        workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(this::work);
+            worker.setName("dbWriteBehindThread" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * takes pending writes of summoners not being written by another worker and not waiting for a retry
+     * and writes them until interrupted
+     */
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<PendingWrite> writes = new ArrayList<>();
+            synchronized (this) {
+                try {
+                    while (writes.isEmpty()) {
+                        long now = System.currentTimeMillis();
+                        long nextRetry = Long.MAX_VALUE;
+                        Iterator<Map.Entry<String, PendingWrite>> iterator = pending.entrySet().iterator();
+                        while (iterator.hasNext() && writes.size() < DRAIN_SIZE) {
+                            Map.Entry<String, PendingWrite> entry = iterator.next();
+                            if (writing.containsKey(entry.getKey())) continue;
+                            if (entry.getValue().retryAt > now) {
+                                nextRetry = Math.min(nextRetry, entry.getValue().retryAt);
+                                continue;
+                            }
+                            iterator.remove();
+                            writing.put(entry.getKey(), entry.getValue());
+                            writes.add(entry.getValue());
+                        }
+                        if (!writes.isEmpty()) break;
+                        if (nextRetry == Long.MAX_VALUE) wait();
+                        else wait(nextRetry - now);
+                    }
+                    // the queue has space again
+                    notifyAll();
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+
+            RuntimeException exception = null;
+            try {
+                writer.accept(new SummonerUpdate(
+                        writes.stream().map(w -> w.summonerItem).collect(Collectors.toList()),
+                        writes.stream().flatMap(w -> w.masteryItems.values().stream()).collect(Collectors.toList())));
+            } catch (RuntimeException e) {
+                // if something goes wrong, print the stacktrace for later investigation
+                e.printStackTrace();
+                exception = e;
+            }
+
+            // complete the written summoners before they are removed from the writes in progress,
+            // so their callbacks are done once flush returns
+            if (exception == null) writes.forEach(w -> w.future.complete(null));
+            List<PendingWrite> failedWrites = new ArrayList<>();
+            synchronized (this) {
+                writes.forEach(w -> writing.remove(w.summonerItem.getSummonerKey()));
+                if (exception == null) {
+                    written += writes.size();
+                } else {
+                    for (PendingWrite write : writes) {
+                        if (++write.attempts < MAX_ATTEMPTS) retry(write);
+                        else failedWrites.add(write);
+                    }
+                    failed += failedWrites.size();
+                }
+                notifyAll();
+            }
+            for (PendingWrite write : failedWrites) write.future.completeExceptionally(exception);
+        }
+    }
+
+    /**
+     * queues a failed write again after a backoff. if a newer write of the summoner is pending, the failed
+     * write is merged into it (the newer items are kept) and completed with it
+     *
+     * @param write the failed write
+     */
+    private void retry(PendingWrite write) {
+        retried++;
+        String summonerKey = write.summonerItem.getSummonerKey();
+        PendingWrite newer = pending.get(summonerKey);
+        if (newer == null) {
+            write.retryAt = System.currentTimeMillis() + (BASE_BACKOFF_MILLIS << (write.attempts - 1));
+            pending.put(summonerKey, write);
+            return;
+        }
+        if (newer.summonerItem.getLastMatchTime() == null)
+            newer.summonerItem.setLastMatchTime(write.summonerItem.getLastMatchTime());
+        write.masteryItems.forEach(newer.masteryItems::putIfAbsent);
+        newer.future.whenComplete((v, t) -> {
+            if (t == null) write.future.complete(null);
+            else write.future.completeExceptionally(t);
+        });
+    }
+
+    /**
+     * returns the summoner item waiting to be written (or being written) for a summoner
+     *
+     * @param summonerKey the summoners key
+     * @return the summoner item, null if no write of the summoner is pending
+     */
+    synchronized SummonerItem getSummoner(String summonerKey) {
+        PendingWrite write = pending.containsKey(summonerKey) ? pending.get(summonerKey) : writing.get(summonerKey);
+        return write == null ? null : write.summonerItem;
+    }
+
+    /**
+     * returns the champion mastery items waiting to be written (or being written) for a summoner
+     *
+     * @param summonerKey the summoners key
+     * @return the champion mastery items, empty if no write of the summoner is pending
+     */
+    synchronized List<ChampionMasteryItem> getMasteries(String summonerKey) {
+        Map<Long, ChampionMasteryItem> masteries = new HashMap<>();
+        if (writing.containsKey(summonerKey)) masteries.putAll(writing.get(summonerKey).masteryItems);
+        if (pending.containsKey(summonerKey)) masteries.putAll(pending.get(summonerKey).masteryItems);
+        return new ArrayList<>(masteries.values());
+    }
+
+    /**
+     * drops the pending write of a summoner and waits until a write of the summoner in progress is finished,
+     * used before the summoner is deleted from the db, so the deleted item is not written again afterwards
+     *
+     * @param summonerKey the summoners key
+     * @return false if interrupted while waiting for the write in progress, the summoner must not be deleted then
+     */
+    boolean discard(String summonerKey) {
+        PendingWrite write;
+        boolean finished = true;
+        synchronized (this) {
+            write = pending.remove(summonerKey);
+            notifyAll();
+            try {
+                while (writing.containsKey(summonerKey)) wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                finished = false;
+            }
+        }
+        if (write != null) write.future.complete(null);
+        return finished;
+    }
+
+    /**
+     * waits until all pending writes are written
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    synchronized void flush() throws InterruptedException {
+        while (!pending.isEmpty() || !writing.isEmpty()) wait();
+    }
+
+    /**
+     * stops accepting writes (later writes are written right away), writes all pending writes and stops the workers
+     */
+    void shutdown() {
+        synchronized (this) {
+            shutdown = true;
+            log.info(String.format("Flushing %d pending summoner writes", pending.size() + writing.size()));
+            notifyAll();
+        }
+        try {
+            flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (workers != null) workers.forEach(Thread::interrupt);
+        }
+    }
+
+    /**
+     * @return a summary of the queued, coalesced and written summoners
+     */
+    synchronized String getStatistics() {
+        return String.format("Write-behind queue: %d pending, %d queued, %d coalesced, %d written, %d retried, "
+                + "%d failed", pending.size() + writing.size(), queued, coalesced, written, retried, failed);
+    }
+
+    /**
+     * the latest summoner item and champion mastery items (by champion id) of a summoner waiting to be written
+     */
+    private static class PendingWrite {
+        private final Map<Long, ChampionMasteryItem> masteryItems = new HashMap<>();
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private SummonerItem summonerItem;
+        // number of failed attempts to write and the time before which the write is not retried
+        private int attempts = 0;
+        private long retryAt = 0;
+
+        PendingWrite(SummonerItem summonerItem) {
+            this.summonerItem = summonerItem;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.lvack.MasterStats.Jobs;
+
+import com.lvack.MasterStats.Api.Metrics.RiotApiMetrics;
+import com.lvack.MasterStats.Db.DataManager;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+
+/**
+ * ApiMetricsLogJobClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+@Slf4j
+public class ApiMetricsLogJob implements Job {
+    /**
+     * logs a summary of the riot api request metrics and the requests saved by the summoner call planner
+     *
+     * @param context QuartzScheduler context (not used)
+     * @throws JobExecutionException QuartzScheduler exception (not used)
+     */
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        RiotApiMetrics.logSummary();
+        log.info(DataManager.getCallPlanner().getStatistics());
+    }
+}
@@ -0,0 +1,317 @@
+package com.lvack.MasterStats.Jobs;
+
+import com.lvack.MasterStats.Api.StaticData.RiotEndpoint;
+import com.lvack.MasterStats.Util.Pair;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * CrawlJournalClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * append-only journal of the pending work of the crawler (matches to load and summoners to ingest), so the
+ * participants collected from match details and the matches found in match lists are not lost on restarts.
+ * work is recorded before it is queued and marked as done once it was passed on (matches) or written
+ * to the db (summoners). every record is flushed right away, so it survives a crash of the application.
+ * the same work may be recorded again while it is still pending (e.g. a summoner found in several matches), so the
+ * pending work is counted per key and only done once it was marked as done as often as it was recorded. of the
+ * recorded summoners the newest match time is kept.
+ * once the journal mostly consists of finished work it is compacted to the pending work only.
+ * on startup the pending work is replayed to the pipelines, once per key
+ */
+@Slf4j
+class CrawlJournal {
+    // minimum number of records written before the journal is compacted
+    private static final int MIN_COMPACTION_RECORDS = 10000;
+    // the journal is compacted once it holds this many records per pending work item
+    private static final int COMPACTION_RATIO = 4;
+    private final File file;
+    // the merged add records of every pending work item by its key (kind, region and id)
+    private final Map<String, PendingRecord> pending = new LinkedHashMap<>();
+    private Writer writer;
+    // number of records in the journal file
+    private int recordCount = 0;
+    private long replayed = 0;
+
+    /**
+     * @param file the file the journal is stored in, null to not store it
+     */
+    CrawlJournal(File file) {
+        this.file = file;
+    }
+
+    /**
+     * creates the journal from the crawler properties (crawlJournalFile) and reads the pending work of the stored
+     * journal if the file exists. without crawlJournalFile the journal is stored in the temp directory, which may be
+     * cleared on a reboot
+     *
+     * @param properties the crawler properties
+     * @return the journal
+     */
+    static CrawlJournal load(Properties properties) {
+        String path = properties.getProperty("crawlJournalFile");
+        if (path == null) {
+            path = new File(System.getProperty("java.io.tmpdir"), "masterStatsCrawlJournal.txt").getPath();
+            log.warn(String.format("crawlJournalFile is not set, storing the crawl journal in %s, "
+                    + "which may be cleared on a reboot", path));
+        }
+        CrawlJournal journal = new CrawlJournal(new File(path));
+        journal.read();
+        // the pending work is replayed once per key, so it is done once it is marked as done once
+        journal.pending.values().forEach(r -> r.count = 1);
+        journal.compact();
+        return journal;
+    }
+
+    /**
+     * records matches to load before they are queued
+     *
+     * @param endpoint the region of the matches
+     * @param matches  pairs of match id and the id of the summoner the match was found for
+     */
+    void addMatches(RiotEndpoint endpoint, List<Pair<Long, Long>> matches) {
+        append(matches.stream().map(m -> String.format("+%s %s %d %d", Kind.MATCH.getCode(), endpoint.name(),
+                m.getKey(), m.getValue())).collect(Collectors.toList()));
+    }
+
+    /**
+     * records the participants of a match to ingest and marks the match as done with a single write,
+     * so the match is only done if its participants are recorded
+     *
+     * @param endpoint     the region of the match
+     * @param matchId      the match id
+     * @param participants the ids of the participants to ingest
+     */
+    void matchExpanded(RiotEndpoint endpoint, long matchId, List<Long> participants) {
+        List<String> records = summonerRecords(endpoint, participants, null);
+        records.add(String.format("-%s %s %d", Kind.MATCH.getCode(), endpoint.name(), matchId));
+        append(records);
+    }
+
+    /**
+     * records summoners to ingest before they are queued
+     *
+     * @param endpoint      the region of the summoners
+     * @param summonerIds   the summoner ids
+     * @param lastMatchTime the time of the newest match expanded for the summoners, null if the summoners were only
+     *                      found as participants
+     */
+    void addSummoners(RiotEndpoint endpoint, List<Long> summonerIds, Long lastMatchTime) {
+        append(summonerRecords(endpoint, summonerIds, lastMatchTime));
+    }
+
+    private static List<String> summonerRecords(RiotEndpoint endpoint, List<Long> summonerIds, Long lastMatchTime) {
+        return summonerIds.stream().map(i -> String.format("+%s %s %d %d", Kind.SUMMONER.getCode(), endpoint.name(),
+                i, lastMatchTime == null ? -1 : lastMatchTime)).collect(Collectors.toList());
+    }
+
+    /**
+     * marks summoners as done, after they were written to the db or dropped
+     *
+     * @param endpoint    the region of the summoners
+     * @param summonerIds the summoner ids
+     */
+    void summonersDone(RiotEndpoint endpoint, Collection<Long> summonerIds) {
+        append(summonerIds.stream().map(i -> String.format("-%s %s %d", Kind.SUMMONER.getCode(), endpoint.name(), i))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * applies records to the pending work and writes them to the journal, flushing once all records are written
+     *
+     * @param records the records
+     */
+    private synchronized void append(List<String> records) {
+        if (records.isEmpty()) return;
+        records.forEach(this::apply);
+        if (file == null) return;
+        try {
+            if (writer == null) writer = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(file, true), StandardCharsets.UTF_8));
+            for (String record : records) {
+                writer.write(record);
+                writer.write('\n');
+            }
+            writer.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        if ((recordCount += records.size()) >= Math.max(MIN_COMPACTION_RECORDS, pending.size() * COMPACTION_RATIO))
+            compact();
+    }
+
+    /**
+     * applies a record to the pending work, malformed records (e.g. cut off by a crash) are ignored.
+     * an add record of pending work increases its count (keeping the newest match time of a summoner),
+     * a done record decreases it and removes the work once it reaches zero
+     *
+     * @param record the record
+     * @return true if the record was valid
+     */
+    private boolean apply(String record) {
+        String[] split = record.split(" ");
+        if (split.length < 3 || split[0].length() != 2) return false;
+        String key = split[0].substring(1) + " " + split[1] + " " + split[2];
+        if (split[0].charAt(0) == '+' && split.length == 4) {
+            PendingRecord pendingRecord = pending.get(key);
+            if (pendingRecord == null) {
+                pending.put(key, new PendingRecord(record));
+                return true;
+            }
+            if (split[0].charAt(1) == Kind.SUMMONER.getCode()) {
+                try {
+                    String[] pendingSplit = pendingRecord.record.split(" ");
+                    if (Long.parseLong(split[3]) > Long.parseLong(pendingSplit[3])) pendingRecord.record = record;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+            pendingRecord.count++;
+        } else if (split[0].charAt(0) == '-' && split.length == 3) {
+            PendingRecord pendingRecord = pending.get(key);
+            if (pendingRecord != null && --pendingRecord.count <= 0) pending.remove(key);
+        } else return false;
+        return true;
+    }
+
+    /**
+     * reads the pending work from the journal file
+     */
+    private synchronized void read() {
+        if (file == null || !file.exists()) return;
+        int invalid = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!apply(line)) invalid++;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        log.info(String.format("Read crawl journal with %d pending work items (%d invalid records)",
+                pending.size(), invalid));
+    }
+
+    /**
+     * rewrites the journal with the pending work only (the merged add record of every work item once per count),
+     * using a temporary file so a failed compaction does not destroy the journal
+     */
+    private synchronized void compact() {
+        recordCount = pending.values().stream().mapToInt(r -> r.count).sum();
+        if (file == null) return;
+        File temp = new File(file.getPath() + ".tmp");
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8))) {
+            for (PendingRecord pendingRecord : pending.values()) {
+                for (int i = 0; i < pendingRecord.count; i++) {
+                    out.write(pendingRecord.record);
+                    out.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        close();
+        if (file.exists() && !file.delete() || !temp.renameTo(file))
+            log.warn(String.format("Could not replace crawl journal file '%s'", file.getPath()));
+    }
+
+    /**
+     * returns the pending work of a region in the order it was recorded
+     *
+     * @param endpoint the region
+     * @return the pending work of the region
+     */
+    synchronized List<PendingWork> getPending(RiotEndpoint endpoint) {
+        List<PendingWork> work = new ArrayList<>();
+        for (PendingRecord pendingRecord : pending.values()) {
+            String record = pendingRecord.record;
+            String[] split = record.split(" ");
+            try {
+                if (!endpoint.name().equals(split[1])) continue;
+                Kind kind = Kind.fromCode(split[0].charAt(1));
+                if (kind != null)
+                    work.add(new PendingWork(kind, Long.parseLong(split[2]), Long.parseLong(split[3])));
+            } catch (IllegalArgumentException e) {
+                log.warn(String.format("Skipping invalid crawl journal record '%s'", record));
+            }
+        }
+        replayed += work.size();
+        return work;
+    }
+
+    /**
+     * closes the journal file, it is opened again by the next record
+     */
+    synchronized void close() {
+        if (writer == null) return;
+        try {
+            writer.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        writer = null;
+    }
+
+    /**
+     * @return a summary of the pending and replayed work
+     */
+    synchronized String getStatistics() {
+        return String.format("Crawl journal: %d pending, %d replayed, %d records", pending.size(), replayed, recordCount);
+    }
+
+    /**
+     * the kinds of work recorded in the journal
+     */
+    enum Kind {
+        MATCH('M'), SUMMONER('S');
+
+        private final char code;
+
+        Kind(char code) {
+            this.code = code;
+        }
+
+        char getCode() {
+            return code;
+        }
+
+        static Kind fromCode(char code) {
+            return Arrays.stream(values()).filter(k -> k.code == code).findFirst().orElse(null);
+        }
+    }
+
+    /**
+     * the merged add record of a pending work item and the number of times it was recorded and not yet done
+     */
+    private static class PendingRecord {
+        private String record;
+        private int count = 1;
+
+        PendingRecord(String record) {
+            this.record = record;
+        }
+    }
+
+    /**
+     * a pending work item: a match (id and id of the summoner it was found for) or
+     * a summoner (id and time of the newest match expanded, -1 if unknown)
+     */
+    @Data
+    @AllArgsConstructor
+    static class PendingWork {
+        private final Kind kind;
+        private final long id;
+        private final long value;
+    }
+}
@@ -0,0 +1,131 @@
+package com.lvack.MasterStats.Jobs;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * CrawlStageClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * stage of the crawl pipeline: a bounded input queue worked on by a fixed number of threads.
+ * the threads take batches of items from the queue and hand them to the handler of the stage, which usually
+ * puts its results into the queue of the next stage. as putting blocks while the next queue is full,
+ * a slow stage slows down all stages before it (backpressure) instead of piling up work
+ *
+ * @param <I> type of the items processed by the stage
+ */
+@Slf4j
+class CrawlStage<I> {
+    private final String name;
+    private final BlockingQueue<I> queue;
+    private final int threadCount;
+    private final int batchSize;
+    private final Consumer<List<I>> handler;
+    private final AtomicLong processed = new AtomicLong();
+    private volatile boolean running = true;
+
+    /**
+     * @param name        the name of the stage, used for the thread names
+     * @param capacity    the capacity of the input queue
+     * @param threadCount the number of threads working on the stage
+     * @param batchSize   the maximum number of items handed to the handler at once
+     * @param handler     the handler processing a batch of items
+     */
+    CrawlStage(String name, int capacity, int threadCount, int batchSize, Consumer<List<I>> handler) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.threadCount = threadCount;
+        this.batchSize = batchSize;
+        this.handler = handler;
+    }
+
+    /**
+     * starts the threads of the stage
+     */
+    void start() {
+        for (int t = 0; t < threadCount; t++) {
+            Thread thread = new Thread(this::work);
+            thread.setName(String.format("%sStageThread-%d", name, t));
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * takes batches from the queue and hands them to the handler until the stage is terminated
+     */
+    private void work() {
+        while (running) {
+            // try-catch to keep thread running even if something goes wrong
+            try {
+                I first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+                List<I> batch = new ArrayList<>();
+                batch.add(first);
+                if (batchSize > 1) queue.drainTo(batch, batchSize - 1);
+                handler.accept(batch);
+                processed.addAndGet(batch.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // if something goes wrong, print the stacktrace for later investigation
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * adds an item to the queue of the stage, blocking while the queue is full
+     *
+     * @param item the item to add
+     */
+    void put(I item) {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * adds an item to the queue of the stage if the queue is not full
+     *
+     * @param item the item to add
+     * @return false if the queue is full and the item was not added
+     */
+    boolean offer(I item) {
+        return queue.offer(item);
+    }
+
+    /**
+     * @return the share (0 to 1) of the queue which is filled
+     */
+    double getFillRate() {
+        return (double) queue.size() / (queue.size() + queue.remainingCapacity());
+    }
+
+    /**
+     * stops the threads once their current batch is finished
+     */
+    void terminate() {
+        running = false;
+    }
+
+    /**
+     * @return a summary of the queue size and processed items of the stage
+     */
+    String getStatistics() {
+        return String.format("%s: %d queued, %d processed", name, queue.size(), processed.get());
+    }
+}
@@ -0,0 +1,305 @@
+package com.lvack.MasterStats.Jobs;
+
+import com.lvack.MasterStats.Api.RateLimit.RequestPriority;
+import com.lvack.MasterStats.Api.ResponseClasses.MatchDetail;
+import com.lvack.MasterStats.Api.ResponseClasses.MatchList;
+import com.lvack.MasterStats.Api.ResponseClasses.MatchReference;
+import com.lvack.MasterStats.Api.ResponseClasses.SummonerDto;
+import com.lvack.MasterStats.Api.RiotApi;
+import com.lvack.MasterStats.Api.RiotApiFactory;
+import com.lvack.MasterStats.Api.RiotApiResponse;
+import com.lvack.MasterStats.Api.StaticData.RiotEndpoint;
+import com.lvack.MasterStats.Db.DataClasses.SummonerItem;
+import com.lvack.MasterStats.Db.DataManager;
+import com.lvack.MasterStats.Db.SummonerUpdate;
+import com.lvack.MasterStats.Util.Pair;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+import static com.lvack.MasterStats.Util.SummonerKeyUtils.summonerKeyToIdRegion;
+
+/**
+ * RegionCrawlPipelineClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * crawl pipeline of a single region using the riot api of the region. the summoners to update pass through the stages
+ * match list (loads the last 10 matches of a summoner), match detail (collects the participants of the matches)
+ * and ingest (loads summoner, league and mastery data of the collected summoners) and are finally handed to the
+ * write-behind queue of the db (touches and deletions to the db write stage shared by all regions).
+ * all stages work at the same time, connected by bounded queues.
+ * matches already expanded (by any region) are skipped using the seen match filter and
+ * summoners updated within the up-to-date duration are dropped before any requests are sent for them.
+ * the time of the newest expanded match is stored per summoner, so only matches played since are requested
+ * and summoners which did not change (same revision date) since their last update are skipped.
+ * the matches and summoners in the match detail and ingest stages are recorded in the crawl journal,
+ * so they are replayed after a restart. summoners which could not be loaded stay pending and are queued again
+ */
+@Slf4j
+class RegionCrawlPipeline {
+    // time to wait before checking again while the circuit breaker of the region is open
+    private static final long UNAVAILABLE_WAIT_MILLIS = 5000;
+    private final RiotEndpoint endpoint;
+    private final RiotApi api;
+    private final CrawlStage<Runnable> writeStage;
+    private final SeenMatchFilter seenMatchFilter;
+    private final CrawlJournal journal;
+    private final CrawlStage<SummonerItem> matchListStage;
+    // pairs of match id and the id of the summoner the match was found for
+    private final CrawlStage<Pair<Long, Long>> matchDetailStage;
+    private final CrawlStage<Long> ingestStage;
+    // time of the newest match expanded for the summoners in the ingest stage, written with the summoner items
+    private final Map<Long, Long> matchCursors = new ConcurrentHashMap<>();
+    // keys of the summoners in the match list stage, summoners are found again by the db query until they are updated
+    private final Set<String> queuedKeys = ConcurrentHashMap.newKeySet();
+    // ids of the summoners which could not be loaded by the ingest stage, queued again by retryFailedIngests
+    private final Queue<Long> failedIngests = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param endpoint        the region to crawl
+     * @param writeStage      the db write stage shared by all regions
+     * @param seenMatchFilter the filter of matches already expanded, shared by all regions
+     * @param journal         the journal of pending crawl work, shared by all regions
+     */
+    RegionCrawlPipeline(RiotEndpoint endpoint, CrawlStage<Runnable> writeStage, SeenMatchFilter seenMatchFilter,
+                        CrawlJournal journal) {
+        this.endpoint = endpoint;
+        this.api = RiotApiFactory.getApi(endpoint, RequestPriority.BACKGROUND);
+        this.writeStage = writeStage;
+        this.seenMatchFilter = seenMatchFilter;
+        this.journal = journal;
+        String name = endpoint.name().toLowerCase();
+        matchListStage = new CrawlStage<>(name + "MatchList", 100, 2, 40, this::loadMatchLists);
+        matchDetailStage = new CrawlStage<>(name + "MatchDetail", 200, 4, 1, b -> b.forEach(this::loadMatchDetail));
+        ingestStage = new CrawlStage<>(name + "Ingest", 400, 2, 40, this::ingest);
+    }
+
+    /**
+     * starts the threads of all stages
+     */
+    void start() {
+        matchListStage.start();
+        matchDetailStage.start();
+        ingestStage.start();
+    }
+
+    /**
+     * stops the threads of all stages
+     */
+    void terminate() {
+        matchListStage.terminate();
+        matchDetailStage.terminate();
+        ingestStage.terminate();
+    }
+
+    /**
+     * queues the pending work of the region recorded in the crawl journal (matches to load and summoners to
+     * ingest), blocking while the queues are full
+     *
+     * @throws InterruptedException if interrupted while waiting for space in a queue
+     */
+    void replay() throws InterruptedException {
+        List<CrawlJournal.PendingWork> work = journal.getPending(endpoint);
+        if (work.isEmpty()) return;
+        log.info(String.format("Replaying %d pending work items of '%s'", work.size(), endpoint.name()));
+        for (CrawlJournal.PendingWork w : work) {
+            if (w.getKind() == CrawlJournal.Kind.MATCH) {
+                matchDetailStage.put(new Pair<>(w.getId(), w.getValue()));
+            } else {
+                if (w.getValue() >= 0) matchCursors.put(w.getId(), w.getValue());
+                ingestStage.put(w.getId());
+            }
+        }
+    }
+
+    /**
+     * adds a summoner to update to the pipeline
+     *
+     * @param item the summoner to update
+     * @return false if the first stage is full or the summoner is already queued and the summoner was not added
+     */
+    boolean offer(SummonerItem item) {
+        if (!queuedKeys.add(item.getSummonerKey())) return false;
+        if (matchListStage.offer(item)) return true;
+        queuedKeys.remove(item.getSummonerKey());
+        return false;
+    }
+
+    /**
+     * queues the summoners which could not be loaded by the ingest stage again, as many as fit in its queue.
+     * does nothing while the circuit breaker of the region is open
+     */
+    void retryFailedIngests() {
+        if (failedIngests.isEmpty() || !api.getCircuitBreaker().isAvailable()) return;
+        Long summonerId;
+        while ((summonerId = failedIngests.peek()) != null && ingestStage.offer(summonerId)) failedIngests.poll();
+    }
+
+    /**
+     * @return true if less than half of the first stage's queue is filled, so the pipeline needs more summoners soon
+     */
+    boolean needsSummoners() {
+        return matchListStage.getFillRate() < 0.5;
+    }
+
+    /**
+     * @return a summary of the queues of all stages
+     */
+    String getStatistics() {
+        return String.format("%s, %s, %s", matchListStage.getStatistics(), matchDetailStage.getStatistics(),
+                ingestStage.getStatistics());
+    }
+
+    /**
+     * checks with a single request whether up to 40 summoners changed since their last update and loads the
+     * match lists of the changed ones. summoners whose matches were expanded before and whose revision date did not
+     * change are only touched (last update time set to now) without requesting their match lists
+     *
+     * @param items the summoners to update
+     */
+    private void loadMatchLists(List<SummonerItem> items) {
+        try {
+            // wait while the riot api of the region is not available
+            while (!api.getCircuitBreaker().isAvailable()) {
+                log.info(String.format("Pausing '%s', the circuit breaker is open", endpoint.name()));
+                Thread.sleep(UNAVAILABLE_WAIT_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            items.forEach(i -> queuedKeys.remove(i.getSummonerKey()));
+        }
+
+        // only summoners with a match cursor can be skipped, the matches of the others were never expanded
+        Long[] cursorIds = items.stream().filter(i -> i.getLastMatchTime() != null)
+                .map(i -> summonerKeyToIdRegion(i.getSummonerKey()).getId()).toArray(Long[]::new);
+        Map<String, SummonerDto> summoners = cursorIds.length == 0 ? null :
+                api.getSummonerApi().getSummonersByIds(cursorIds).get();
+
+        List<SummonerItem> unchanged = new ArrayList<>();
+        for (SummonerItem item : items) {
+            SummonerDto summoner = summoners == null ? null :
+                    summoners.get(String.valueOf(summonerKeyToIdRegion(item.getSummonerKey()).getId()));
+            if (item.getLastMatchTime() != null && summoner != null && summoner.getRevisionDate() == item.getRevisionDate())
+                unchanged.add(item);
+            else loadMatchList(item);
+        }
+        if (!unchanged.isEmpty())
+            writeStage.put(() -> DataManager.touchSummonersInDb(unchanged.toArray(new SummonerItem[unchanged.size()])));
+    }
+
+    /**
+     * loads the matches of a summoner played since their newest expanded match (at most the last 10) and passes
+     * them to the match detail stage and the summoner to the ingest stage. if a summoner without expanded
+     * matches does not have any games in their match history they are deleted from the db, a summoner with
+     * expanded matches but no new ones is touched
+     *
+     * @param item the summoner to update
+     */
+    private void loadMatchList(SummonerItem item) {
+        long summonerId = summonerKeyToIdRegion(item.getSummonerKey()).getId();
+        Long lastMatchTime = item.getLastMatchTime();
+        // request summoners latest 10 matches played since the newest expanded match from their match history
+        RiotApiResponse<MatchList> matchListResponse = api.getMatchListApi().getMatchListBySummoner(summonerId,
+                lastMatchTime == null ? 0 : lastMatchTime + 1, 0, 10);
+        MatchList matchList = matchListResponse.get();
+        List<MatchReference> matches = matchList == null || matchList.getMatches() == null ?
+                Collections.emptyList() : matchList.getMatches();
+        if (!matches.isEmpty()) {
+            // if matches were found, schedule summoner for update and the matches not expanded yet for loading
+            long newestMatchTime = matches.stream().mapToLong(MatchReference::getTimestamp).max().getAsLong();
+            List<Pair<Long, Long>> newMatches = matches.stream().map(MatchReference::getMatchId)
+                    .filter(m -> !seenMatchFilter.isSeen(m)).map(m -> new Pair<>(m, summonerId))
+                    .collect(Collectors.toList());
+            // record the work before queueing it
+            journal.addSummoners(endpoint, Collections.singletonList(summonerId), newestMatchTime);
+            journal.addMatches(endpoint, newMatches);
+            matchCursors.put(summonerId, newestMatchTime);
+            ingestStage.put(summonerId);
+            for (Pair<Long, Long> match : newMatches) matchDetailStage.put(match);
+        } else if (matchListResponse.getStatus() == 404 || matchList != null) {
+            if (lastMatchTime != null) {
+                // no matches were played since the last update
+                writeStage.put(() -> DataManager.touchSummonersInDb(item));
+            } else {
+                // if no matches or no match history were found, schedule summoner for deletion
+                writeStage.put(() -> DataManager.deleteSummonersFromDb(item));
+            }
+        }
+    }
+
+    /**
+     * loads the details of a match and passes all participants (except the summoner the match was found for
+     * and summoners which are up to date) to the ingest stage and adds the match to the seen match filter
+     *
+     * @param match the match id and the id of the summoner the match was found for
+     */
+    private void loadMatchDetail(Pair<Long, Long> match) {
+        MatchDetail matchDetail = api.getMatchApi().getMatchById(match.getKey()).get();
+        // filter failed requests, the match stays in the journal and is loaded again after a restart
+        if (matchDetail == null) return;
+        List<Long> participants = matchDetail.getParticipantIdentities().stream()
+                .map(i -> i.getPlayer().getSummonerId())
+                .filter(i -> i != match.getValue().longValue())
+                .filter(i -> !DataManager.isSummonerUpToDate(i, endpoint))
+                .collect(Collectors.toList());
+        // record the participants before queueing them, the match is done once they are recorded
+        journal.matchExpanded(endpoint, match.getKey(), participants);
+        seenMatchFilter.add(match.getKey());
+        for (Long participant : participants) ingestStage.put(participant);
+    }
+
+    /**
+     * loads summoner, league and mastery data of up to 40 summoners and queues the items to be written to the db.
+     * the summoners whose match lists were loaded get the time of their newest match as new match cursor.
+     * if the data could not be loaded, the summoners stay pending in the journal (with their match cursors)
+     * and are queued again by retryFailedIngests
+     *
+     * @param summonerIds the summoner ids
+     */
+    private void ingest(List<Long> summonerIds) {
+        try {
+            // wait while the riot api of the region is not available
+            while (!api.getCircuitBreaker().isAvailable()) {
+                log.info(String.format("Pausing ingest of '%s', the circuit breaker is open", endpoint.name()));
+                Thread.sleep(UNAVAILABLE_WAIT_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        Map<Long, Long> cursors = new HashMap<>();
+        summonerIds.forEach(i -> {
+            Long cursor = matchCursors.remove(i);
+            if (cursor != null) cursors.put(i, cursor);
+        });
+        // summoners might have been updated while they were queued
+        Long[] ids = summonerIds.stream().distinct()
+                .filter(i -> !DataManager.isSummonerUpToDate(i, endpoint)).toArray(Long[]::new);
+        SummonerUpdate summonerUpdate = ids.length == 0 ? null :
+                DataManager.fetchSummonerUpdate(endpoint, RequestPriority.BACKGROUND, ids);
+        if (ids.length > 0 && summonerUpdate == null) {
+            // the summoners could not be loaded, keep their cursors and queue them again later
+            cursors.forEach((i, c) -> matchCursors.merge(i, c, Math::max));
+            failedIngests.addAll(summonerIds);
+            return;
+        }
+        if (summonerUpdate == null || summonerUpdate.getSummonerItems().isEmpty()) {
+            // summoners which are up to date, do not exist or are not level 30 are dropped
+            journal.summonersDone(endpoint, summonerIds);
+            return;
+        }
+        summonerUpdate.getSummonerItems().forEach(s ->
+                s.setLastMatchTime(cursors.get(summonerKeyToIdRegion(s.getSummonerKey()).getId())));
+        // the summoners are done once they are written, so they are ingested again if the write does not happen
+        DataManager.queueSummonerUpdate(summonerUpdate).thenRun(() -> journal.summonersDone(endpoint, summonerIds));
+    }
+}
@@ -0,0 +1,169 @@
+package com.lvack.MasterStats.Jobs;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.util.Properties;
+
+/**
+ * SeenMatchFilterClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * probabilistic set of the match ids already expanded by the crawler, so matches shared by crawled summoners are
+ * only loaded once. two bloom filters are used: new ids are added to the current filter and once it holds as many ids
+ * as it was sized for, it replaces the previous filter and a new current filter is started. this way the memory
+ * is bounded and old matches are forgotten eventually. as an id is checked against both filters, each filter is sized
+ * for half the configured false positive rate, so the false positive rate of both together stays below it.
+ * the filters are stored in a file, so they survive restarts
+ */
+@Slf4j
+class SeenMatchFilter {
+    private static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+    private static final long DEFAULT_MEMORY_MB = 16;
+    // number of added ids after which the filters are saved
+    private static final int SAVE_INTERVAL = 10000;
+    private final File file;
+    private final double falsePositiveRate;
+    // the false positive rate of each of the two filters
+    private final double generationFalsePositiveRate;
+    private final int capacity;
+    private BloomFilter<Long> current;
+    private BloomFilter<Long> previous;
+    private int currentCount = 0;
+    private int unsavedCount = 0;
+    private long skipped = 0;
+    private long added = 0;
+
+    /**
+     * creates an empty filter
+     *
+     * @param file              the file the filters are stored in, null to not store them
+     * @param falsePositiveRate the rate of ids not yet added which are reported as seen by either filter
+     * @param memoryBytes       the memory the two filters may use
+     */
+    SeenMatchFilter(File file, double falsePositiveRate, long memoryBytes) {
+        this.file = file;
+        this.falsePositiveRate = falsePositiveRate;
+        this.generationFalsePositiveRate = falsePositiveRate / 2;
+        // a bloom filter needs -ln(p) / ln(2)^2 bits per id for a false positive rate of p
+        double bitsPerId = -Math.log(generationFalsePositiveRate) / (Math.log(2) * Math.log(2));
+        this.capacity = (int) Math.max(1000, Math.min(Integer.MAX_VALUE, memoryBytes * 8 / 2 / bitsPerId));
+        current = createFilter();
+    }
+
+    /**
+     * creates the filter from the crawler properties (seenMatchFilterFile, seenMatchFilterFalsePositiveRate and
+     * seenMatchFilterMemory in MB) and loads the stored filters if the file exists.
+     * without seenMatchFilterFile the filters are stored in the temp directory, which may be cleared on a reboot
+     *
+     * @param properties the crawler properties
+     * @return the filter
+     */
+    static SeenMatchFilter load(Properties properties) {
+        String path = properties.getProperty("seenMatchFilterFile");
+        if (path == null) {
+            path = new File(System.getProperty("java.io.tmpdir"), "masterStatsSeenMatches.bin").getPath();
+            log.warn(String.format("seenMatchFilterFile is not set, storing the seen match filter in %s, "
+                    + "which may be cleared on a reboot", path));
+        }
+        double falsePositiveRate = Double.parseDouble(properties.getProperty("seenMatchFilterFalsePositiveRate",
+                String.valueOf(DEFAULT_FALSE_POSITIVE_RATE)));
+        long memory = Long.parseLong(properties.getProperty("seenMatchFilterMemory", String.valueOf(DEFAULT_MEMORY_MB)));
+        SeenMatchFilter filter = new SeenMatchFilter(new File(path), falsePositiveRate, memory * 1024 * 1024);
+        filter.read();
+        log.info(String.format("Seen match filter holds up to %d matches per generation (false positive rate %.3f)",
+                filter.capacity, falsePositiveRate));
+        return filter;
+    }
+
+    private BloomFilter<Long> createFilter() {
+        return BloomFilter.create(Funnels.longFunnel(), capacity, generationFalsePositiveRate);
+    }
+
+    /**
+     * checks whether a match was already expanded and counts the skipped match if it was
+     *
+     * @param matchId the match id
+     * @return true if the match was (probably) already expanded
+     */
+    synchronized boolean isSeen(long matchId) {
+        boolean seen = current.mightContain(matchId) || previous != null && previous.mightContain(matchId);
+        if (seen) skipped++;
+        return seen;
+    }
+
+    /**
+     * adds an expanded match. starts a new generation if the current filter is full
+     * and saves the filters every 10000 matches
+     *
+     * @param matchId the match id
+     */
+    synchronized void add(long matchId) {
+        if (!current.put(matchId)) return;
+        added++;
+        if (++currentCount >= capacity) {
+            log.info(String.format("Seen match filter is full after %d matches, starting a new generation", currentCount));
+            previous = current;
+            current = createFilter();
+            currentCount = 0;
+        }
+        if (++unsavedCount >= SAVE_INTERVAL) save();
+    }
+
+    /**
+     * stores the filters in the file, using a temporary file so a failed save does not destroy the stored filters
+     */
+    synchronized void save() {
+        if (file == null) return;
+        unsavedCount = 0;
+        File temp = new File(file.getPath() + ".tmp");
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeDouble(falsePositiveRate);
+            out.writeInt(capacity);
+            out.writeInt(currentCount);
+            out.writeObject(current);
+            out.writeObject(previous);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        if (file.exists() && !file.delete() || !temp.renameTo(file))
+            log.warn(String.format("Could not replace seen match filter file '%s'", file.getPath()));
+    }
+
+    /**
+     * loads the filters from the file, if they were created with the same false positive rate and capacity
+     */
+    @SuppressWarnings("unchecked")
+    private synchronized void read() {
+        if (file == null || !file.exists()) return;
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readDouble() != falsePositiveRate || in.readInt() != capacity) {
+                log.info("Seen match filter settings changed, starting with an empty filter");
+                return;
+            }
+            currentCount = in.readInt();
+            current = (BloomFilter<Long>) in.readObject();
+            previous = (BloomFilter<Long>) in.readObject();
+            log.info(String.format("Loaded seen match filter with %d matches in the current generation", currentCount));
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            e.printStackTrace();
+            current = createFilter();
+            previous = null;
+            currentCount = 0;
+        }
+    }
+
+    /**
+     * @return a summary of the matches skipped and added
+     */
+    synchronized String getStatistics() {
+        return String.format("Seen match filter: %d skipped, %d added (%d in the current generation of %d)",
+                skipped, added, currentCount, capacity);
+    }
+}
@@ -1,21 +1,13 @@
 package com.lvack.MasterStats.Jobs;
 
-import com.lvack.MasterStats.Api.ResponseClasses.MatchDetail;
-import com.lvack.MasterStats.Api.ResponseClasses.MatchList;
-import com.lvack.MasterStats.Api.ResponseClasses.MatchReference;
-import com.lvack.MasterStats.Api.RiotApi;
-import com.lvack.MasterStats.Api.RiotApiFactory;
-import com.lvack.MasterStats.Api.RiotApiResponse;
 import com.lvack.MasterStats.Api.StaticData.RiotEndpoint;
 import com.lvack.MasterStats.Db.DataClasses.SummonerItem;
 import com.lvack.MasterStats.Db.DataManager;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-
-import static com.lvack.MasterStats.Util.SummonerKeyUtils.summonerKeyToIdRegion;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
 
 /**
  * SummonerCrawlRunnableClass for MasterStats
@@ -25,103 +17,207 @@ import static com.lvack.MasterStats.Util.SummonerKeyUtils.summonerKeyToIdRegion;
 
 @Slf4j
 public class SummonerCrawlRunnable implements Runnable {
-    private static boolean running = true;
+    // time to wait before checking again if all pipelines have enough summoners to crawl
+    private static final long IDLE_WAIT_MILLIS = 1000;
+    // number of summoner loads after which the pipeline statistics are logged
+    private static final int STATISTICS_INTERVAL = 100;
+    private static final int BATCH_SIZE = 20;
+    private static final long DEFAULT_FRONTIER_SCAN_INTERVAL_MINUTES = 60;
+    // time to wait before checking again if the crawl frontier needs a new scan
+    private static final long FRONTIER_CHECK_MILLIS = 60 * 1000;
+    private static volatile boolean running = true;
+    // db touches and deletions of all regions, summoner updates are written by the write-behind queue of the db
+    private final CrawlStage<Runnable> writeStage = new CrawlStage<>("dbWrite", 20, 4, 1, b -> b.forEach(Runnable::run));
+    private final Map<RiotEndpoint, RegionCrawlPipeline> pipelines = new EnumMap<>(RiotEndpoint.class);
+    private volatile SeenMatchFilter seenMatchFilter;
+    private volatile CrawlJournal journal;
 
     /**
-     * sets running to false to break run loop once the next iteration is started
+     * sets running to false to break run loop once the next iteration is started and stops the pipelines
      */
     public void terminate() {
         running = false;
+        pipelines.values().forEach(RegionCrawlPipeline::terminate);
+        writeStage.terminate();
+        if (seenMatchFilter != null) seenMatchFilter.save();
+    }
+
+    /**
+     * closes the crawl journal. the summoners are marked as done in the journal once they are written,
+     * so this is called after the write-behind queue was flushed
+     */
+    public void closeJournal() {
+        if (journal != null) journal.close();
     }
 
     /**
-     * collects new summoners by getting the 20 oldest (longest time not updated) summoners for the db
-     * with a random mastery score and then add all summoners from their last 10 games
-     * if a summoner does not have any games in their match history they are deleted from the db
+     * loads the optional crawler.properties file
+     *
+     * @return the crawler properties, empty if the file does not exist
+     */
+    private static Properties loadProperties() {
+        Properties properties = new Properties();
+        InputStream in = SummonerCrawlRunnable.class.getClassLoader().getResourceAsStream("crawler.properties");
+        if (in == null) return properties;
+        try {
+            properties.load(in);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        try {
+            in.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return properties;
+    }
+
+    /**
+     * starts a crawl pipeline for each region and the db write stage shared by them and feeds the pipelines
+     * with summoners to update. while a pipeline needs more summoners, the next 20 summoners of its region
+     * are taken from the crawl frontier (recently searched and the stalest summoners). if the frontier of a region
+     * is empty, the 20 oldest (longest time not updated) summoners with a random mastery score are loaded
+     * from the db instead and handed to the regions with an empty frontier. if that did not give every such region
+     * summoners (e.g. a region with few summoners), the loop waits before trying again, so it does not use up the
+     * read capacity needed by the frontier scan. if the db writes fall behind, the queues of the stages fill up and no more
+     * summoners are loaded. the crawl frontier is refilled by a scan thread.
+     * before any summoners are loaded, the pending work recorded in the crawl journal is replayed
      */
     @Override
     public void run() {
+        Properties properties = loadProperties();
+        seenMatchFilter = SeenMatchFilter.load(properties);
+        journal = CrawlJournal.load(properties);
+        writeStage.start();
+        for (RiotEndpoint endpoint : RiotEndpoint.PLAYABLE_ENDPOINTS) {
+            RegionCrawlPipeline pipeline = new RegionCrawlPipeline(endpoint, writeStage, seenMatchFilter, journal);
+            pipelines.put(endpoint, pipeline);
+            pipeline.start();
+        }
+        if (!replayJournal()) return;
+        startFrontierScanThread(Long.parseLong(properties.getProperty("frontierScanInterval",
+                String.valueOf(DEFAULT_FRONTIER_SCAN_INTERVAL_MINUTES))) * 60 * 1000);
+
+        int loads = 0;
         // while loop that breaks once terminate was called
         while (running) {
             // try-catch to keep thread running even if something goes wrong
             try {
-                // get summoners to update
-                log.info("Updating next batch of summoners");
-                HashMap<RiotEndpoint, List<SummonerItem>> nextUpdateSummoners = DataManager.getNextUpdateSummoners(20);
-                log.info(String.format("Got data of %d summoners", nextUpdateSummoners.size()));
-
-                // iterate over all regions
-                nextUpdateSummoners.entrySet().forEach(e -> {
-                    // if no summoners were found in this region continue to the next
-                    if (e.getValue().size() == 0) return;
-
-                    // get matching riot api instance
-                    RiotEndpoint endpoint = e.getKey();
-                    RiotApi api = RiotApiFactory.getApi(endpoint);
-
-                    // create list of summoners to add and delete
-                    List<SummonerItem> deleteList = new ArrayList<>();
-                    List<Long> summonerIds = new ArrayList<>();
-
-                    // iterate over all summoners in the region
-                    e.getValue().forEach(item -> {
-                        long summonerId = summonerKeyToIdRegion(item.getSummonerKey()).getId();
-                        // request summoners latest 10 matches from their match history
-                        RiotApiResponse<MatchList> matchListResponse = api.getMatchListApi().getMatchListBySummoner(summonerId, 0, 10);
-                        MatchList matchList = matchListResponse.get();
-                        if (matchList != null && matchList.getEndIndex() > 0) {
-                            // if matches were found, schedule summoner for update
-                            summonerIds.add(summonerId);
-                            // iterate over all matches returned by the api
-                            for (int m = 0; m < matchList.getEndIndex(); m++) {
-                                // request current match data
-                                MatchReference matchReference = matchList.getMatches().get(m);
-                                long matchId = matchReference.getMatchId();
-                                RiotApiResponse<MatchDetail> matchRequest = api.getMatchApi().getMatchById(matchId);
-                                MatchDetail matchDetail = matchRequest.get();
-                                // filter failed requests
-                                if (matchDetail != null) {
-                                    // schedule all summoners in the game for updating
-                                    matchDetail.getParticipantIdentities().stream()
-                                            .map(i -> i.getPlayer().getSummonerId())
-                                            .filter(i -> i != summonerId)
-                                            .forEach(summonerIds::add);
-                                }
-                            }
-                        } else {
-                            // if no matches or no match history were found, schedule summoner for deletion
-                            if (matchListResponse.getResponse().getStatus() == 404 ||
-                                    matchList != null && matchList.getEndIndex() == 0)
-                                deleteList.add(item);
-                        }
-
-                    });
-
-                    log.info(String.format("Processed summoners in '%s'. Saving %d and deleting %d",
-                            endpoint.name(), summonerIds.size(), deleteList.size()));
-
-                    // save collected summoners to db
-                    while (summonerIds.size() > 0) {
-                        Long[] longs = new Long[Math.min(summonerIds.size(), 10)];
-                        for (int l = 0; l < longs.length; l++) {
-                            longs[l] = summonerIds.remove(0);
-                        }
-                        DataManager.saveSummonersToDb(endpoint, longs);
-                    }
+                // queue the summoners which could not be loaded again
+                pipelines.values().forEach(RegionCrawlPipeline::retryFailedIngests);
+
+                // only load summoners if a pipeline is running out of them
+                if (pipelines.values().stream().noneMatch(RegionCrawlPipeline::needsSummoners)) {
+                    Thread.sleep(IDLE_WAIT_MILLIS);
+                    continue;
+                }
 
-                    // remove summoners without a match history form the db
-                    while (deleteList.size() > 0) {
-                        SummonerItem[] items = new SummonerItem[Math.min(deleteList.size(), 10)];
-                        for (int l = 0; l < items.length; l++) {
-                            items[l] = deleteList.remove(0);
-                        }
-                        DataManager.deleteSummonersFromDb(items);
+                // take the summoners to update from the crawl frontier
+                List<RiotEndpoint> emptyRegions = new ArrayList<>();
+                for (Map.Entry<RiotEndpoint, RegionCrawlPipeline> entry : pipelines.entrySet()) {
+                    if (!entry.getValue().needsSummoners()) continue;
+                    List<SummonerItem> items = DataManager.getNextUpdateSummoners(entry.getKey(), BATCH_SIZE);
+                    items.forEach(entry.getValue()::offer);
+                    if (items.isEmpty()) emptyRegions.add(entry.getKey());
+                }
+
+                if (!emptyRegions.isEmpty()) {
+                    // get summoners to update for the regions with an empty frontier
+                    log.debug(String.format("Loading next batch of summoners for %d regions", emptyRegions.size()));
+                    HashMap<RiotEndpoint, List<SummonerItem>> nextUpdateSummoners = DataManager.getNextUpdateSummoners(BATCH_SIZE);
+
+                    // hand the summoners to the pipelines of their regions, summoners not fitting in the queue
+                    // of a pipeline are skipped, they are still not updated and will be found again later
+                    boolean allFed = true;
+                    for (RiotEndpoint endpoint : emptyRegions) {
+                        List<SummonerItem> items = nextUpdateSummoners.getOrDefault(endpoint, Collections.emptyList());
+                        items.forEach(pipelines.get(endpoint)::offer);
+                        if (items.isEmpty()) allFed = false;
                     }
-                });
+
+                    // wait instead of querying again right away, until the frontier scan refills the frontier
+                    if (!allFed) Thread.sleep(IDLE_WAIT_MILLIS);
+                }
+
+                if (++loads % STATISTICS_INTERVAL == 0) {
+                    log.info(String.format("Crawl pipeline: %s", writeStage.getStatistics()));
+                    log.info(seenMatchFilter.getStatistics());
+                    log.info(journal.getStatistics());
+                    log.info(DataManager.getMasteryWriteStatistics());
+                    log.info(DataManager.getWriteBehindStatistics());
+                    log.info(String.format("Crawl frontier: %d summoners", DataManager.getCrawlFrontierSize()));
+                    pipelines.forEach((endpoint, pipeline) -> log.info(String.format(" - %s: %s",
+                            endpoint.name(), pipeline.getStatistics())));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
             } catch (Exception e) {
                 // if something goes wrong, print the stacktrace for later investigation
                 e.printStackTrace();
             }
         }
     }
+
+    /**
+     * replays the pending work of the crawl journal to the pipelines of all regions at the same time
+     * and waits until all of it is queued
+     *
+     * @return false if interrupted while waiting
+     */
+    private boolean replayJournal() {
+        List<Thread> replayThreads = new ArrayList<>();
+        pipelines.forEach((endpoint, pipeline) -> {
+            Thread replayThread = new Thread(() -> {
+                try {
+                    pipeline.replay();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            replayThread.setName(endpoint.name().toLowerCase() + "CrawlReplayThread");
+            replayThread.setDaemon(true);
+            replayThread.start();
+            replayThreads.add(replayThread);
+        });
+        try {
+            for (Thread replayThread : replayThreads) replayThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * starts a thread scanning the summoner table for the crawl frontier. a scan is started right away and
+     * after that whenever the frontier is running empty, but at most once per interval
+     *
+     * @param interval the minimum time between two scans in milliseconds
+     */
+    private void startFrontierScanThread(long interval) {
+        Thread scanThread = new Thread(() -> {
+            long lastScan = 0;
+            while (running) {
+                // try-catch to keep thread running even if something goes wrong
+                try {
+                    if (lastScan == 0 || System.currentTimeMillis() - lastScan > interval &&
+                            DataManager.getCrawlFrontierSize() < BATCH_SIZE * pipelines.size()) {
+                        lastScan = System.currentTimeMillis();
+                        DataManager.scanCrawlFrontier();
+                    }
+                    Thread.sleep(FRONTIER_CHECK_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    // if something goes wrong, print the stacktrace for later investigation
+                    e.printStackTrace();
+                }
+            }
+        });
+        scanThread.setName("crawlFrontierScanThread");
+        scanThread.setDaemon(true);
+        scanThread.start();
+    }
 }
@@ -1,6 +1,7 @@
 package com.lvack.MasterStats;
 
 import com.lvack.MasterStats.Db.DataManager;
+import com.lvack.MasterStats.Jobs.ApiMetricsLogJob;
 import com.lvack.MasterStats.Jobs.CacheUpdateJob;
 import com.lvack.MasterStats.Jobs.SummonerCrawlRunnable;
 import com.lvack.MasterStats.Jobs.UpdateJob;
@@ -29,6 +30,8 @@ public class MasteryApplication extends WebApplication {
     public static final LocalTime UPDATE_TIME = new LocalTime(4, 0);
     // set cache update time 30 minutes earlier
     private static final LocalTime CACHE_UPDATE_TIME = UPDATE_TIME.minusMinutes(30);
+    // interval in minutes in which the riot api metrics are logged
+    private static final int API_METRICS_LOG_INTERVAL = 10;
     // boolean to easily toggle deployment between deployment and development mode
     private static final boolean deployment = true;
     private Scheduler scheduler;
@@ -103,6 +106,18 @@ public class MasteryApplication extends WebApplication {
 
                 scheduler.scheduleJob(updateJob, updateTrigger);
 
+                JobDetail apiMetricsLogJob = JobBuilder.newJob(ApiMetricsLogJob.class)
+                        .withIdentity("defaultApiMetricsLogger", "apiMetricsLogger")
+                        .build();
+
+                Trigger apiMetricsLogTrigger = TriggerBuilder.newTrigger()
+                        .withIdentity("defaultApiMetricsLoggerTrigger", "apiMetricsLogger")
+                        .withSchedule(SimpleScheduleBuilder.repeatMinutelyForever(API_METRICS_LOG_INTERVAL))
+                        .startAt(DateBuilder.futureDate(API_METRICS_LOG_INTERVAL, DateBuilder.IntervalUnit.MINUTE))
+                        .build();
+
+                scheduler.scheduleJob(apiMetricsLogJob, apiMetricsLogTrigger);
+
                 scheduler.start();
             } catch (SchedulerException e) {
                 e.printStackTrace();
@@ -145,5 +160,11 @@ public class MasteryApplication extends WebApplication {
 
         // stop summoner crawler
         if (summonerCrawlRunnable != null) summonerCrawlRunnable.terminate();
+
+        // write the summoner updates still waiting to be written
+        DataManager.shutdownWriteBehindQueue();
+
+        // close the crawl journal after the written summoners were marked as done
+        if (summonerCrawlRunnable != null) summonerCrawlRunnable.closeJournal();
     }
 }
@@ -3,6 +3,7 @@ package com.lvack.MasterStats.PageData;
 import com.lvack.MasterStats.Api.ResponseClasses.SummonerDto;
 import com.lvack.MasterStats.Api.RiotApi;
 import com.lvack.MasterStats.Api.RiotApiFactory;
+import com.lvack.MasterStats.Api.Health.CircuitBreaker;
 import com.lvack.MasterStats.Api.StaticData.RiotEndpoint;
 import com.lvack.MasterStats.Db.DataClasses.ChampionStatisticItem;
 import com.lvack.MasterStats.Db.DataClasses.OverallSummonerStatisticItem;
@@ -12,10 +13,14 @@ import com.lvack.MasterStats.Util.Pair;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.queue.CircularFifoQueue;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 
+import static com.lvack.MasterStats.Util.SummonerKeyUtils.summonerIdRegionToKey;
+
 /**
  * PageDataProviderClass for MasterStats
  *
@@ -32,6 +37,16 @@ public class PageDataProvider {
     public static Map<Long, String> championIdKeyNameMap = new HashMap<>();
     public static OverallSummonerStatisticItem overallSummonerStatisticItem;
     public static String version;
+    // maps region and summoner name key to the summoner key of the summoners searched recently,
+    // used to find stored statistics while the riot api of the region is not available
+    private static final int SUMMONER_KEY_CACHE_SIZE = 100000;
+    private static final Map<String, String> summonerKeyCache = Collections.synchronizedMap(
+            new LinkedHashMap<String, String>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > SUMMONER_KEY_CACHE_SIZE;
+                }
+            });
 
     /**
      * gets the champion statistic for a champion from the local cache, returns null if it was not found
@@ -57,24 +72,34 @@ public class PageDataProvider {
     }
 
     /**
-     * gets or generates the summoner statistic for a given summoner
+     * gets or generates the summoner statistic for a given summoner.
+     * if the circuit breaker of the region is open, the cached or stored statistic is returned right away
      *
      * @param summonerName the summoners name
      * @param region       the summoners region
      * @return a pair with the summoners name key as key and the statistic as value
      */
     public static Pair<String, SummonerStatisticItem> generateSummonerStatistic(String summonerName, RiotEndpoint region) {
+        // use the cached or stored statistic if the riot api of the region is not available
+        CircuitBreaker circuitBreaker = RiotApiFactory.getCircuitBreaker(region);
+        if (!circuitBreaker.isAvailable()) return getFallbackSummonerStatistic(summonerName, region);
+
         // get the api and get the summoners data
         RiotApi riotApi = RiotApiFactory.getApi(region);
         Map<String, SummonerDto> summonerDtos = riotApi.getSummonerApi().getSummonersByNames(summonerName).get();
+        // the circuit breaker might have opened while the request was sent
+        if (summonerDtos == null && !circuitBreaker.isAvailable())
+            return getFallbackSummonerStatistic(summonerName, region);
 
         // if the summoner was not found or multiple were found, return null
         if (summonerDtos == null || summonerDtos.size() != 1) return null;
         Map.Entry<String, SummonerDto> summonerDtoEntry = summonerDtos.entrySet().stream().findFirst().orElse(null);
         if (summonerDtoEntry == null) return null;
 
-        // get the summoners name key
+        // get the summoners name key and remember their summoner key
         String summonerNameKey = summonerDtoEntry.getKey();
+        summonerKeyCache.put(region.name() + ":" + summonerNameKey,
+                summonerIdRegionToKey(summonerDtoEntry.getValue().getId(), region));
         // check if the summoners statistic is stored in the cache
         Pair<String, SummonerStatisticItem> summonerStatistic = summonerStatisticCache.stream()
                 .filter(p -> p.getKey().equals(summonerNameKey) && p.getValue().getSummonerKey().endsWith(region.name()))
@@ -100,4 +125,30 @@ public class PageDataProvider {
         summonerStatisticCache.add(summonerStatistic);
         return summonerStatistic;
     }
+
+    /**
+     * returns the statistic of a summoner without using the riot api, either from the cache (regardless of its age)
+     * or from the db if the summoners key is known from an earlier search
+     *
+     * @param summonerName the summoners name
+     * @param region       the summoners region
+     * @return a pair with the summoners name key as key and the statistic as value, null if none was found
+     */
+    private static Pair<String, SummonerStatisticItem> getFallbackSummonerStatistic(String summonerName,
+                                                                                      RiotEndpoint region) {
+        // the name key used by the riot api is the name in lower case without spaces
+        String summonerNameKey = summonerName.toLowerCase().replace(" ", "");
+        Pair<String, SummonerStatisticItem> summonerStatistic = summonerStatisticCache.stream()
+                .filter(p -> p.getKey().equals(summonerNameKey) && p.getValue().getSummonerKey().endsWith(region.name()))
+                .findFirst().orElse(null);
+        if (summonerStatistic != null) return summonerStatistic;
+
+        String summonerKey = summonerKeyCache.get(region.name() + ":" + summonerNameKey);
+        if (summonerKey == null) return null;
+        SummonerStatisticItem statistic = DataManager.getStoredSummonerStatistic(summonerKey);
+        if (statistic == null) return null;
+        log.info(String.format("Riot API of %s is not available, using stored statistic of %s",
+                region.name(), summonerKey));
+        return new Pair<>(summonerNameKey, statistic);
+    }
 }
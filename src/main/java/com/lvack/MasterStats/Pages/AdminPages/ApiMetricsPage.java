@@ -0,0 +1,60 @@
+package com.lvack.MasterStats.Pages.AdminPages;
+
+import com.lvack.MasterStats.Api.Metrics.LatencyHistogram;
+import com.lvack.MasterStats.Api.Metrics.RequestMetrics;
+import com.lvack.MasterStats.Api.Metrics.RiotApiMetrics;
+import com.lvack.MasterStats.Db.DataManager;
+import com.lvack.MasterStats.Db.SummonerCallPlanner;
+import com.lvack.MasterStats.Pages.BasePage;
+import org.apache.wicket.markup.html.basic.Label;
+import org.apache.wicket.markup.html.list.ListItem;
+import org.apache.wicket.markup.html.list.ListView;
+import org.apache.wicket.request.mapper.parameter.PageParameters;
+import org.wicketstuff.annotation.mount.MountPath;
+
+import java.util.stream.Collectors;
+
+/**
+ * ApiMetricsPageClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * admin page showing the riot api request metrics of all sub api functions and regions.
+ * not linked in the navbar
+ */
+@MountPath("/admin/api")
+public class ApiMetricsPage extends BasePage {
+    public ApiMetricsPage(PageParameters parameters) {
+        super(parameters, "API Metrics", null);
+
+        SummonerCallPlanner callPlanner = DataManager.getCallPlanner();
+        add(new Label("saved_calls", String.format("%.2f requests saved per ingested summoner (%d summoners ingested)",
+                callPlanner.getSavedCallsPerSummoner(), callPlanner.getIngested())));
+
+        add(new ListView<RequestMetrics>("metrics_list_view", RiotApiMetrics.getAll()) {
+            @Override
+            protected void populateItem(ListItem<RequestMetrics> item) {
+                RequestMetrics metrics = item.getModelObject();
+                LatencyHistogram latency = metrics.getLatency();
+                LatencyHistogram queueWait = metrics.getQueueWait();
+
+                item.add(new Label("metrics_sub_api", metrics.getSubApi()));
+                item.add(new Label("metrics_method", metrics.getMethod()));
+                item.add(new Label("metrics_region", metrics.getEndpoint().name()));
+                item.add(new Label("metrics_attempts", latency.getCount()));
+                item.add(new Label("metrics_status", metrics.getStatusCounts().entrySet().stream()
+                        .map(e -> e.getKey() + ": " + e.getValue()).collect(Collectors.joining(", "))));
+                item.add(new Label("metrics_rate_limited", String.format("%.1f%%", 100 * metrics.getStatusRate(429))));
+                item.add(new Label("metrics_cached", metrics.getCacheHits()));
+                item.add(new Label("metrics_rejected", metrics.getRejected()));
+                item.add(new Label("metrics_wait", String.format("%d / %d", queueWait.getPercentile(50),
+                        queueWait.getPercentile(99))));
+                item.add(new Label("metrics_latency", String.format("%d / %d / %d / %d", latency.getPercentile(50),
+                        latency.getPercentile(90), latency.getPercentile(99), latency.getMax())));
+                item.add(new Label("metrics_bytes", metrics.getBytes()));
+            }
+        });
+    }
+}
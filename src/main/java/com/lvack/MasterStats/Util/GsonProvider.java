@@ -2,6 +2,10 @@ package com.lvack.MasterStats.Util;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.lvack.MasterStats.Api.ResponseClasses.*;
+import com.lvack.MasterStats.Db.DataClasses.ChampionMasteryItem;
+import com.lvack.MasterStats.Db.DataClasses.SummonerItem;
+import com.lvack.MasterStats.Util.TypeAdapters.*;
 
 /**
  * GsonProviderClass for MasterStats
@@ -11,9 +15,27 @@ import com.google.gson.GsonBuilder;
 
 /**
  * static class to provide the global gson instance
+ * the riot api response classes and the db items stored as json use hand-written type adapters
+ * instead of reflection
  */
 public class GsonProvider {
-    private static final Gson GSON = new GsonBuilder().create();
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(SummonerDto.class, new SummonerDtoAdapter().nullSafe())
+            .registerTypeAdapter(ChampionMasteryDto.class, new ChampionMasteryDtoAdapter().nullSafe())
+            .registerTypeAdapter(LeagueDto.class, new LeagueDtoAdapter().nullSafe())
+            .registerTypeAdapter(LeagueEntryDto.class, new LeagueEntryDtoAdapter().nullSafe())
+            .registerTypeAdapter(MatchList.class, new MatchListAdapter().nullSafe())
+            .registerTypeAdapter(MatchReference.class, new MatchReferenceAdapter().nullSafe())
+            .registerTypeAdapter(MatchDetail.class, new MatchDetailAdapter().nullSafe())
+            .registerTypeAdapter(ParticipantIdentity.class, new ParticipantIdentityAdapter().nullSafe())
+            .registerTypeAdapter(Player.class, new PlayerAdapter().nullSafe())
+            .registerTypeAdapter(ChampionListDto.class, new ChampionListDtoAdapter().nullSafe())
+            .registerTypeAdapter(ChampionDto.class, new ChampionDtoAdapter().nullSafe())
+            .registerTypeAdapter(ImageDto.class, new ImageDtoAdapter().nullSafe())
+            .registerTypeAdapter(SummonerItem.class, new SummonerItemAdapter().nullSafe())
+            .registerTypeAdapter(ChampionMasteryItem.class, new ChampionMasteryItemAdapter().nullSafe())
+            .registerTypeAdapterFactory(new PairTypeAdapterFactory())
+            .create();
 
     public static Gson getGSON() {
         return GSON;
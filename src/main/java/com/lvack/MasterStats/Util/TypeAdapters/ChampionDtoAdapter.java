@@ -0,0 +1,63 @@
+package com.lvack.MasterStats.Util.TypeAdapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.lvack.MasterStats.Api.ResponseClasses.ChampionDto;
+import com.lvack.MasterStats.Api.ResponseClasses.ImageDto;
+
+import java.io.IOException;
+
+/**
+ * ChampionDtoAdapterClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * type adapter for champions contained in champion lists, used instead of reflection
+ */
+public class ChampionDtoAdapter extends TypeAdapter<ChampionDto> {
+    private final TypeAdapter<ImageDto> imageDtoAdapter = new ImageDtoAdapter().nullSafe();
+
+    @Override
+    public void write(JsonWriter writer, ChampionDto championDto) throws IOException {
+        writer.beginObject();
+        writer.name("id").value(championDto.getId());
+        writer.name("name").value(championDto.getName());
+        writer.name("title").value(championDto.getTitle());
+        writer.name("key").value(championDto.getKey());
+        writer.name("image");
+        imageDtoAdapter.write(writer, championDto.getImage());
+        writer.endObject();
+    }
+
+    @Override
+    public ChampionDto read(JsonReader reader) throws IOException {
+        ChampionDto championDto = new ChampionDto();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    championDto.setId(TypeAdapterUtils.nextLong(reader, championDto.getId()));
+                    break;
+                case "name":
+                    championDto.setName(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "title":
+                    championDto.setTitle(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "key":
+                    championDto.setKey(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "image":
+                    championDto.setImage(imageDtoAdapter.read(reader));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return championDto;
+    }
+}
@@ -0,0 +1,59 @@
+package com.lvack.MasterStats.Util.TypeAdapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.lvack.MasterStats.Api.ResponseClasses.ChampionDto;
+import com.lvack.MasterStats.Api.ResponseClasses.ChampionListDto;
+
+import java.io.IOException;
+
+/**
+ * ChampionListDtoAdapterClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * type adapter for champion lists returned by the static data api, used instead of reflection
+ */
+public class ChampionListDtoAdapter extends TypeAdapter<ChampionListDto> {
+    private final TypeAdapter<ChampionDto> championDtoAdapter = new ChampionDtoAdapter().nullSafe();
+
+    @Override
+    public void write(JsonWriter writer, ChampionListDto championListDto) throws IOException {
+        writer.beginObject();
+        writer.name("data");
+        TypeAdapterUtils.writeMap(writer, championListDto.getData(), championDtoAdapter);
+        writer.name("format").value(championListDto.getFormat());
+        writer.name("type").value(championListDto.getType());
+        writer.name("version").value(championListDto.getVersion());
+        writer.endObject();
+    }
+
+    @Override
+    public ChampionListDto read(JsonReader reader) throws IOException {
+        ChampionListDto championListDto = new ChampionListDto();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "data":
+                    championListDto.setData(TypeAdapterUtils.readMap(reader, championDtoAdapter));
+                    break;
+                case "format":
+                    championListDto.setFormat(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "type":
+                    championListDto.setType(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "version":
+                    championListDto.setVersion(TypeAdapterUtils.nextString(reader));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return championListDto;
+    }
+}
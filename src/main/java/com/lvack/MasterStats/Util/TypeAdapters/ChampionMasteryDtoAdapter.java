@@ -0,0 +1,82 @@
+package com.lvack.MasterStats.Util.TypeAdapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.lvack.MasterStats.Api.ResponseClasses.ChampionMasteryDto;
+
+import java.io.IOException;
+
+/**
+ * ChampionMasteryDtoAdapterClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * type adapter for champion mastery data returned by the champion mastery api, used instead of reflection
+ */
+public class ChampionMasteryDtoAdapter extends TypeAdapter<ChampionMasteryDto> {
+    @Override
+    public void write(JsonWriter writer, ChampionMasteryDto championMasteryDto) throws IOException {
+        writer.beginObject();
+        writer.name("championId").value(championMasteryDto.getChampionId());
+        writer.name("championLevel").value(championMasteryDto.getChampionLevel());
+        writer.name("championPoints").value(championMasteryDto.getChampionPoints());
+        writer.name("championPointsSinceLastLevel").value(championMasteryDto.getChampionPointsSinceLastLevel());
+        writer.name("championPointsUntilNextLevel").value(championMasteryDto.getChampionPointsUntilNextLevel());
+        writer.name("chestGranted").value(championMasteryDto.isChestGranted());
+        writer.name("highestGrade").value(championMasteryDto.getHighestGrade());
+        writer.name("lastPlayTime").value(championMasteryDto.getLastPlayTime());
+        writer.name("playerId").value(championMasteryDto.getPlayerId());
+        writer.endObject();
+    }
+
+    @Override
+    public ChampionMasteryDto read(JsonReader reader) throws IOException {
+        ChampionMasteryDto championMasteryDto = new ChampionMasteryDto();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "championId":
+                    championMasteryDto.setChampionId(TypeAdapterUtils.nextLong(reader,
+                            championMasteryDto.getChampionId()));
+                    break;
+                case "championLevel":
+                    championMasteryDto.setChampionLevel(TypeAdapterUtils.nextInt(reader,
+                            championMasteryDto.getChampionLevel()));
+                    break;
+                case "championPoints":
+                    championMasteryDto.setChampionPoints(TypeAdapterUtils.nextInt(reader,
+                            championMasteryDto.getChampionPoints()));
+                    break;
+                case "championPointsSinceLastLevel":
+                    championMasteryDto.setChampionPointsSinceLastLevel(TypeAdapterUtils.nextInt(reader,
+                            championMasteryDto.getChampionPointsSinceLastLevel()));
+                    break;
+                case "championPointsUntilNextLevel":
+                    championMasteryDto.setChampionPointsUntilNextLevel(TypeAdapterUtils.nextInt(reader,
+                            championMasteryDto.getChampionPointsUntilNextLevel()));
+                    break;
+                case "chestGranted":
+                    championMasteryDto.setChestGranted(TypeAdapterUtils.nextBoolean(reader,
+                            championMasteryDto.isChestGranted()));
+                    break;
+                case "highestGrade":
+                    championMasteryDto.setHighestGrade(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "lastPlayTime":
+                    championMasteryDto.setLastPlayTime(TypeAdapterUtils.nextLong(reader,
+                            championMasteryDto.getLastPlayTime()));
+                    break;
+                case "playerId":
+                    championMasteryDto.setPlayerId(TypeAdapterUtils.nextLong(reader, championMasteryDto.getPlayerId()));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return championMasteryDto;
+    }
+}
@@ -0,0 +1,82 @@
+package com.lvack.MasterStats.Util.TypeAdapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.lvack.MasterStats.Db.DataClasses.ChampionMasteryItem;
+
+import java.io.IOException;
+
+/**
+ * ChampionMasteryItemAdapterClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * type adapter for champion mastery items stored as json in summoner and champion statistics, used instead of reflection
+ */
+public class ChampionMasteryItemAdapter extends TypeAdapter<ChampionMasteryItem> {
+    @Override
+    public void write(JsonWriter writer, ChampionMasteryItem championMasteryItem) throws IOException {
+        writer.beginObject();
+        writer.name("summonerKey").value(championMasteryItem.getSummonerKey());
+        writer.name("championId").value(championMasteryItem.getChampionId());
+        writer.name("championPoints").value(championMasteryItem.getChampionPoints());
+        writer.name("chestGranted").value(championMasteryItem.getChestGranted());
+        writer.name("championLevel").value(championMasteryItem.getChampionLevel());
+        writer.name("championPointsSinceLastLevel").value(championMasteryItem.getChampionPointsSinceLastLevel());
+        writer.name("championPointsUntilNextLevel").value(championMasteryItem.getChampionPointsUntilNextLevel());
+        writer.name("highestGrade").value(championMasteryItem.getHighestGrade());
+        writer.name("lastPlayTime").value(championMasteryItem.getLastPlayTime());
+        writer.endObject();
+    }
+
+    @Override
+    public ChampionMasteryItem read(JsonReader reader) throws IOException {
+        ChampionMasteryItem championMasteryItem = new ChampionMasteryItem();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "summonerKey":
+                    championMasteryItem.setSummonerKey(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "championId":
+                    championMasteryItem.setChampionId(TypeAdapterUtils.nextLong(reader,
+                            championMasteryItem.getChampionId()));
+                    break;
+                case "championPoints":
+                    championMasteryItem.setChampionPoints(TypeAdapterUtils.nextInt(reader,
+                            championMasteryItem.getChampionPoints()));
+                    break;
+                case "chestGranted":
+                    championMasteryItem.setChestGranted(TypeAdapterUtils.nextInt(reader,
+                            championMasteryItem.getChestGranted()));
+                    break;
+                case "championLevel":
+                    championMasteryItem.setChampionLevel(TypeAdapterUtils.nextInt(reader,
+                            championMasteryItem.getChampionLevel()));
+                    break;
+                case "championPointsSinceLastLevel":
+                    championMasteryItem.setChampionPointsSinceLastLevel(TypeAdapterUtils.nextInt(reader,
+                            championMasteryItem.getChampionPointsSinceLastLevel()));
+                    break;
+                case "championPointsUntilNextLevel":
+                    championMasteryItem.setChampionPointsUntilNextLevel(TypeAdapterUtils.nextInt(reader,
+                            championMasteryItem.getChampionPointsUntilNextLevel()));
+                    break;
+                case "highestGrade":
+                    championMasteryItem.setHighestGrade(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "lastPlayTime":
+                    championMasteryItem.setLastPlayTime(TypeAdapterUtils.nextLong(reader,
+                            championMasteryItem.getLastPlayTime()));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return championMasteryItem;
+    }
+}
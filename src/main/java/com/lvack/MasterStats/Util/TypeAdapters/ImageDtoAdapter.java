@@ -0,0 +1,67 @@
+package com.lvack.MasterStats.Util.TypeAdapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.lvack.MasterStats.Api.ResponseClasses.ImageDto;
+
+import java.io.IOException;
+
+/**
+ * ImageDtoAdapterClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * type adapter for champion images contained in champion data, used instead of reflection
+ */
+public class ImageDtoAdapter extends TypeAdapter<ImageDto> {
+    @Override
+    public void write(JsonWriter writer, ImageDto imageDto) throws IOException {
+        writer.beginObject();
+        writer.name("full").value(imageDto.getFull());
+        writer.name("group").value(imageDto.getGroup());
+        writer.name("h").value(imageDto.getH());
+        writer.name("sprite").value(imageDto.getSprite());
+        writer.name("w").value(imageDto.getW());
+        writer.name("x").value(imageDto.getX());
+        writer.name("y").value(imageDto.getY());
+        writer.endObject();
+    }
+
+    @Override
+    public ImageDto read(JsonReader reader) throws IOException {
+        ImageDto imageDto = new ImageDto();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "full":
+                    imageDto.setFull(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "group":
+                    imageDto.setGroup(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "h":
+                    imageDto.setH(TypeAdapterUtils.nextInt(reader, imageDto.getH()));
+                    break;
+                case "sprite":
+                    imageDto.setSprite(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "w":
+                    imageDto.setW(TypeAdapterUtils.nextInt(reader, imageDto.getW()));
+                    break;
+                case "x":
+                    imageDto.setX(TypeAdapterUtils.nextInt(reader, imageDto.getX()));
+                    break;
+                case "y":
+                    imageDto.setY(TypeAdapterUtils.nextInt(reader, imageDto.getY()));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return imageDto;
+    }
+}
@@ -0,0 +1,63 @@
+package com.lvack.MasterStats.Util.TypeAdapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.lvack.MasterStats.Api.ResponseClasses.LeagueDto;
+import com.lvack.MasterStats.Api.ResponseClasses.LeagueEntryDto;
+
+import java.io.IOException;
+
+/**
+ * LeagueDtoAdapterClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * type adapter for leagues returned by the league api, used instead of reflection
+ */
+public class LeagueDtoAdapter extends TypeAdapter<LeagueDto> {
+    private final TypeAdapter<LeagueEntryDto> leagueEntryDtoAdapter = new LeagueEntryDtoAdapter().nullSafe();
+
+    @Override
+    public void write(JsonWriter writer, LeagueDto leagueDto) throws IOException {
+        writer.beginObject();
+        writer.name("entries");
+        TypeAdapterUtils.writeList(writer, leagueDto.getEntries(), leagueEntryDtoAdapter);
+        writer.name("name").value(leagueDto.getName());
+        writer.name("participantId").value(leagueDto.getParticipantId());
+        writer.name("queue").value(leagueDto.getQueue());
+        writer.name("tier").value(leagueDto.getTier());
+        writer.endObject();
+    }
+
+    @Override
+    public LeagueDto read(JsonReader reader) throws IOException {
+        LeagueDto leagueDto = new LeagueDto();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "entries":
+                    leagueDto.setEntries(TypeAdapterUtils.readList(reader, leagueEntryDtoAdapter));
+                    break;
+                case "name":
+                    leagueDto.setName(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "participantId":
+                    leagueDto.setParticipantId(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "queue":
+                    leagueDto.setQueue(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "tier":
+                    leagueDto.setTier(TypeAdapterUtils.nextString(reader));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return leagueDto;
+    }
+}
@@ -0,0 +1,79 @@
+package com.lvack.MasterStats.Util.TypeAdapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.lvack.MasterStats.Api.ResponseClasses.LeagueEntryDto;
+
+import java.io.IOException;
+
+/**
+ * LeagueEntryDtoAdapterClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * type adapter for league entries returned by the league api, used instead of reflection
+ */
+public class LeagueEntryDtoAdapter extends TypeAdapter<LeagueEntryDto> {
+    @Override
+    public void write(JsonWriter writer, LeagueEntryDto leagueEntryDto) throws IOException {
+        writer.beginObject();
+        writer.name("division").value(leagueEntryDto.getDivision());
+        writer.name("isFreshBlood").value(leagueEntryDto.isFreshBlood());
+        writer.name("isHotStreak").value(leagueEntryDto.isHotStreak());
+        writer.name("isInactive").value(leagueEntryDto.isInactive());
+        writer.name("isVeteran").value(leagueEntryDto.isVeteran());
+        writer.name("leaguePoints").value(leagueEntryDto.getLeaguePoints());
+        writer.name("losses").value(leagueEntryDto.getLosses());
+        writer.name("playerOrTeamId").value(leagueEntryDto.getPlayerOrTeamId());
+        writer.name("playerOrTeamName").value(leagueEntryDto.getPlayerOrTeamName());
+        writer.name("wins").value(leagueEntryDto.getWins());
+        writer.endObject();
+    }
+
+    @Override
+    public LeagueEntryDto read(JsonReader reader) throws IOException {
+        LeagueEntryDto leagueEntryDto = new LeagueEntryDto();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "division":
+                    leagueEntryDto.setDivision(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "isFreshBlood":
+                    leagueEntryDto.setFreshBlood(TypeAdapterUtils.nextBoolean(reader, leagueEntryDto.isFreshBlood()));
+                    break;
+                case "isHotStreak":
+                    leagueEntryDto.setHotStreak(TypeAdapterUtils.nextBoolean(reader, leagueEntryDto.isHotStreak()));
+                    break;
+                case "isInactive":
+                    leagueEntryDto.setInactive(TypeAdapterUtils.nextBoolean(reader, leagueEntryDto.isInactive()));
+                    break;
+                case "isVeteran":
+                    leagueEntryDto.setVeteran(TypeAdapterUtils.nextBoolean(reader, leagueEntryDto.isVeteran()));
+                    break;
+                case "leaguePoints":
+                    leagueEntryDto.setLeaguePoints(TypeAdapterUtils.nextInt(reader, leagueEntryDto.getLeaguePoints()));
+                    break;
+                case "losses":
+                    leagueEntryDto.setLosses(TypeAdapterUtils.nextInt(reader, leagueEntryDto.getLosses()));
+                    break;
+                case "playerOrTeamId":
+                    leagueEntryDto.setPlayerOrTeamId(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "playerOrTeamName":
+                    leagueEntryDto.setPlayerOrTeamName(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "wins":
+                    leagueEntryDto.setWins(TypeAdapterUtils.nextInt(reader, leagueEntryDto.getWins()));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return leagueEntryDto;
+    }
+}
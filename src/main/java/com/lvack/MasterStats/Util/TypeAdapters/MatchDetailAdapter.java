@@ -0,0 +1,89 @@
+package com.lvack.MasterStats.Util.TypeAdapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.lvack.MasterStats.Api.ResponseClasses.MatchDetail;
+import com.lvack.MasterStats.Api.ResponseClasses.ParticipantIdentity;
+
+import java.io.IOException;
+
+/**
+ * MatchDetailAdapterClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * type adapter for match details returned by the match api.
+ * only the fields of MatchDetail are read, everything else (participants, teams, timeline) is skipped
+ * without building any objects for it, used instead of reflection
+ */
+public class MatchDetailAdapter extends TypeAdapter<MatchDetail> {
+    private final TypeAdapter<ParticipantIdentity> participantIdentityAdapter = new ParticipantIdentityAdapter().nullSafe();
+
+    @Override
+    public void write(JsonWriter writer, MatchDetail matchDetail) throws IOException {
+        writer.beginObject();
+        writer.name("mapId").value(matchDetail.getMapId());
+        writer.name("matchCreation").value(matchDetail.getMatchCreation());
+        writer.name("matchDuration").value(matchDetail.getMatchDuration());
+        writer.name("matchId").value(matchDetail.getMatchId());
+        writer.name("matchMode").value(matchDetail.getMatchMode());
+        writer.name("matchVersion").value(matchDetail.getMatchVersion());
+        writer.name("participantIdentities");
+        TypeAdapterUtils.writeList(writer, matchDetail.getParticipantIdentities(), participantIdentityAdapter);
+        writer.name("platformId").value(matchDetail.getPlatformId());
+        writer.name("queueType").value(matchDetail.getQueueType());
+        writer.name("region").value(matchDetail.getRegion());
+        writer.name("season").value(matchDetail.getSeason());
+        writer.endObject();
+    }
+
+    @Override
+    public MatchDetail read(JsonReader reader) throws IOException {
+        MatchDetail matchDetail = new MatchDetail();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "mapId":
+                    matchDetail.setMapId(TypeAdapterUtils.nextInt(reader, matchDetail.getMapId()));
+                    break;
+                case "matchCreation":
+                    matchDetail.setMatchCreation(TypeAdapterUtils.nextLong(reader, matchDetail.getMatchCreation()));
+                    break;
+                case "matchDuration":
+                    matchDetail.setMatchDuration(TypeAdapterUtils.nextLong(reader, matchDetail.getMatchDuration()));
+                    break;
+                case "matchId":
+                    matchDetail.setMatchId(TypeAdapterUtils.nextLong(reader, matchDetail.getMatchId()));
+                    break;
+                case "matchMode":
+                    matchDetail.setMatchMode(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "matchVersion":
+                    matchDetail.setMatchVersion(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "participantIdentities":
+                    matchDetail.setParticipantIdentities(TypeAdapterUtils.readList(reader, participantIdentityAdapter));
+                    break;
+                case "platformId":
+                    matchDetail.setPlatformId(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "queueType":
+                    matchDetail.setQueueType(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "region":
+                    matchDetail.setRegion(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "season":
+                    matchDetail.setSeason(TypeAdapterUtils.nextString(reader));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return matchDetail;
+    }
+}
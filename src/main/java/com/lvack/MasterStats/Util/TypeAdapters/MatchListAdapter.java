@@ -0,0 +1,59 @@
+package com.lvack.MasterStats.Util.TypeAdapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.lvack.MasterStats.Api.ResponseClasses.MatchList;
+import com.lvack.MasterStats.Api.ResponseClasses.MatchReference;
+
+import java.io.IOException;
+
+/**
+ * MatchListAdapterClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * type adapter for match lists returned by the match list api, used instead of reflection
+ */
+public class MatchListAdapter extends TypeAdapter<MatchList> {
+    private final TypeAdapter<MatchReference> matchReferenceAdapter = new MatchReferenceAdapter().nullSafe();
+
+    @Override
+    public void write(JsonWriter writer, MatchList matchList) throws IOException {
+        writer.beginObject();
+        writer.name("endIndex").value(matchList.getEndIndex());
+        writer.name("matches");
+        TypeAdapterUtils.writeList(writer, matchList.getMatches(), matchReferenceAdapter);
+        writer.name("startIndex").value(matchList.getStartIndex());
+        writer.name("totalGames").value(matchList.getTotalGames());
+        writer.endObject();
+    }
+
+    @Override
+    public MatchList read(JsonReader reader) throws IOException {
+        MatchList matchList = new MatchList();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "endIndex":
+                    matchList.setEndIndex(TypeAdapterUtils.nextInt(reader, matchList.getEndIndex()));
+                    break;
+                case "matches":
+                    matchList.setMatches(TypeAdapterUtils.readList(reader, matchReferenceAdapter));
+                    break;
+                case "startIndex":
+                    matchList.setStartIndex(TypeAdapterUtils.nextInt(reader, matchList.getStartIndex()));
+                    break;
+                case "totalGames":
+                    matchList.setTotalGames(TypeAdapterUtils.nextInt(reader, matchList.getTotalGames()));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return matchList;
+    }
+}
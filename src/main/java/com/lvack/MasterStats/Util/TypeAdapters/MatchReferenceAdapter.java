@@ -0,0 +1,75 @@
+package com.lvack.MasterStats.Util.TypeAdapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.lvack.MasterStats.Api.ResponseClasses.MatchReference;
+
+import java.io.IOException;
+
+/**
+ * MatchReferenceAdapterClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * type adapter for match references contained in match lists, used instead of reflection
+ */
+public class MatchReferenceAdapter extends TypeAdapter<MatchReference> {
+    @Override
+    public void write(JsonWriter writer, MatchReference matchReference) throws IOException {
+        writer.beginObject();
+        writer.name("champion").value(matchReference.getChampion());
+        writer.name("lane").value(matchReference.getLane());
+        writer.name("matchId").value(matchReference.getMatchId());
+        writer.name("platformId").value(matchReference.getPlatformId());
+        writer.name("queue").value(matchReference.getQueue());
+        writer.name("region").value(matchReference.getRegion());
+        writer.name("role").value(matchReference.getRole());
+        writer.name("season").value(matchReference.getSeason());
+        writer.name("timestamp").value(matchReference.getTimestamp());
+        writer.endObject();
+    }
+
+    @Override
+    public MatchReference read(JsonReader reader) throws IOException {
+        MatchReference matchReference = new MatchReference();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "champion":
+                    matchReference.setChampion(TypeAdapterUtils.nextLong(reader, matchReference.getChampion()));
+                    break;
+                case "lane":
+                    matchReference.setLane(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "matchId":
+                    matchReference.setMatchId(TypeAdapterUtils.nextLong(reader, matchReference.getMatchId()));
+                    break;
+                case "platformId":
+                    matchReference.setPlatformId(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "queue":
+                    matchReference.setQueue(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "region":
+                    matchReference.setRegion(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "role":
+                    matchReference.setRole(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "season":
+                    matchReference.setSeason(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "timestamp":
+                    matchReference.setTimestamp(TypeAdapterUtils.nextLong(reader, matchReference.getTimestamp()));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return matchReference;
+    }
+}
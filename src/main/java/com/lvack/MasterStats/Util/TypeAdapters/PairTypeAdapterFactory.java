@@ -0,0 +1,88 @@
+package com.lvack.MasterStats.Util.TypeAdapters;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.lvack.MasterStats.Util.Pair;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * PairTypeAdapterFactoryClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * type adapter factory for pairs (e.g. the top summoners stored in champion statistics),
+ * reading and writing key and value with the adapters registered for their types
+ */
+public class PairTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> typeToken) {
+        if (typeToken.getRawType() != Pair.class) return null;
+
+        // use the type arguments of the pair if known, fall back to objects otherwise
+        Type keyType = Object.class;
+        Type valueType = Object.class;
+        if (typeToken.getType() instanceof ParameterizedType) {
+            Type[] arguments = ((ParameterizedType) typeToken.getType()).getActualTypeArguments();
+            keyType = arguments[0];
+            valueType = arguments[1];
+        }
+
+        TypeAdapter<Object> keyAdapter = (TypeAdapter<Object>) gson.getAdapter(TypeToken.get(keyType));
+        TypeAdapter<Object> valueAdapter = (TypeAdapter<Object>) gson.getAdapter(TypeToken.get(valueType));
+        return (TypeAdapter<T>) new PairTypeAdapter(keyAdapter, valueAdapter).nullSafe();
+    }
+
+    /**
+     * type adapter for pairs with the given key and value adapters
+     */
+    private static class PairTypeAdapter extends TypeAdapter<Pair<Object, Object>> {
+        private final TypeAdapter<Object> keyAdapter;
+        private final TypeAdapter<Object> valueAdapter;
+
+        PairTypeAdapter(TypeAdapter<Object> keyAdapter, TypeAdapter<Object> valueAdapter) {
+            this.keyAdapter = keyAdapter;
+            this.valueAdapter = valueAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter writer, Pair<Object, Object> pair) throws IOException {
+            writer.beginObject();
+            writer.name("key");
+            keyAdapter.write(writer, pair.getKey());
+            writer.name("value");
+            valueAdapter.write(writer, pair.getValue());
+            writer.endObject();
+        }
+
+        @Override
+        public Pair<Object, Object> read(JsonReader reader) throws IOException {
+            Pair<Object, Object> pair = new Pair<>(null, null);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "key":
+                        pair.setKey(keyAdapter.read(reader));
+                        break;
+                    case "value":
+                        pair.setValue(valueAdapter.read(reader));
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return pair;
+        }
+    }
+}
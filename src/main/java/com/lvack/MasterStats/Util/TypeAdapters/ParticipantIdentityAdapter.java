@@ -0,0 +1,52 @@
+package com.lvack.MasterStats.Util.TypeAdapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.lvack.MasterStats.Api.ResponseClasses.ParticipantIdentity;
+import com.lvack.MasterStats.Api.ResponseClasses.Player;
+
+import java.io.IOException;
+
+/**
+ * ParticipantIdentityAdapterClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * type adapter for participant identities contained in match details, used instead of reflection
+ */
+public class ParticipantIdentityAdapter extends TypeAdapter<ParticipantIdentity> {
+    private final TypeAdapter<Player> playerAdapter = new PlayerAdapter().nullSafe();
+
+    @Override
+    public void write(JsonWriter writer, ParticipantIdentity participantIdentity) throws IOException {
+        writer.beginObject();
+        writer.name("participantId").value(participantIdentity.getParticipantId());
+        writer.name("player");
+        playerAdapter.write(writer, participantIdentity.getPlayer());
+        writer.endObject();
+    }
+
+    @Override
+    public ParticipantIdentity read(JsonReader reader) throws IOException {
+        ParticipantIdentity participantIdentity = new ParticipantIdentity();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "participantId":
+                    participantIdentity.setParticipantId(TypeAdapterUtils.nextInt(reader,
+                            participantIdentity.getParticipantId()));
+                    break;
+                case "player":
+                    participantIdentity.setPlayer(playerAdapter.read(reader));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return participantIdentity;
+    }
+}
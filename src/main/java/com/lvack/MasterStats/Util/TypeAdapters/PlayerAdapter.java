@@ -0,0 +1,55 @@
+package com.lvack.MasterStats.Util.TypeAdapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.lvack.MasterStats.Api.ResponseClasses.Player;
+
+import java.io.IOException;
+
+/**
+ * PlayerAdapterClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * type adapter for players contained in participant identities, used instead of reflection
+ */
+public class PlayerAdapter extends TypeAdapter<Player> {
+    @Override
+    public void write(JsonWriter writer, Player player) throws IOException {
+        writer.beginObject();
+        writer.name("matchHistoryUri").value(player.getMatchHistoryUri());
+        writer.name("profileIcon").value(player.getProfileIcon());
+        writer.name("summonerId").value(player.getSummonerId());
+        writer.name("summonerName").value(player.getSummonerName());
+        writer.endObject();
+    }
+
+    @Override
+    public Player read(JsonReader reader) throws IOException {
+        Player player = new Player();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "matchHistoryUri":
+                    player.setMatchHistoryUri(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "profileIcon":
+                    player.setProfileIcon(TypeAdapterUtils.nextInt(reader, player.getProfileIcon()));
+                    break;
+                case "summonerId":
+                    player.setSummonerId(TypeAdapterUtils.nextLong(reader, player.getSummonerId()));
+                    break;
+                case "summonerName":
+                    player.setSummonerName(TypeAdapterUtils.nextString(reader));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return player;
+    }
+}
@@ -0,0 +1,59 @@
+package com.lvack.MasterStats.Util.TypeAdapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.lvack.MasterStats.Api.ResponseClasses.SummonerDto;
+
+import java.io.IOException;
+
+/**
+ * SummonerDtoAdapterClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * type adapter for summoner data returned by the summoner api, used instead of reflection
+ */
+public class SummonerDtoAdapter extends TypeAdapter<SummonerDto> {
+    @Override
+    public void write(JsonWriter writer, SummonerDto summonerDto) throws IOException {
+        writer.beginObject();
+        writer.name("id").value(summonerDto.getId());
+        writer.name("name").value(summonerDto.getName());
+        writer.name("profileIconId").value(summonerDto.getProfileIconId());
+        writer.name("revisionDate").value(summonerDto.getRevisionDate());
+        writer.name("summonerLevel").value(summonerDto.getSummonerLevel());
+        writer.endObject();
+    }
+
+    @Override
+    public SummonerDto read(JsonReader reader) throws IOException {
+        SummonerDto summonerDto = new SummonerDto();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    summonerDto.setId(TypeAdapterUtils.nextLong(reader, summonerDto.getId()));
+                    break;
+                case "name":
+                    summonerDto.setName(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "profileIconId":
+                    summonerDto.setProfileIconId(TypeAdapterUtils.nextInt(reader, summonerDto.getProfileIconId()));
+                    break;
+                case "revisionDate":
+                    summonerDto.setRevisionDate(TypeAdapterUtils.nextLong(reader, summonerDto.getRevisionDate()));
+                    break;
+                case "summonerLevel":
+                    summonerDto.setSummonerLevel(TypeAdapterUtils.nextLong(reader, summonerDto.getSummonerLevel()));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return summonerDto;
+    }
+}
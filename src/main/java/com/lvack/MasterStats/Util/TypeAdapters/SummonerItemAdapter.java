@@ -0,0 +1,79 @@
+package com.lvack.MasterStats.Util.TypeAdapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.lvack.MasterStats.Db.DataClasses.SummonerItem;
+
+import java.io.IOException;
+
+/**
+ * SummonerItemAdapterClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * type adapter for summoner items stored as json in summoner and champion statistics, used instead of reflection
+ */
+public class SummonerItemAdapter extends TypeAdapter<SummonerItem> {
+    @Override
+    public void write(JsonWriter writer, SummonerItem summonerItem) throws IOException {
+        writer.beginObject();
+        writer.name("summonerKey").value(summonerItem.getSummonerKey());
+        writer.name("summonerName").value(summonerItem.getSummonerName());
+        writer.name("division").value(summonerItem.getDivision());
+        writer.name("tier").value(summonerItem.getTier());
+        writer.name("masteryScore").value(summonerItem.getMasteryScore());
+        writer.name("lastUpdated").value(summonerItem.getLastUpdated());
+        writer.name("profileIconId").value(summonerItem.getProfileIconId());
+        writer.name("revisionDate").value(summonerItem.getRevisionDate());
+        writer.name("summonerLevel").value(summonerItem.getSummonerLevel());
+        writer.name("lastMatchTime").value(summonerItem.getLastMatchTime());
+        writer.endObject();
+    }
+
+    @Override
+    public SummonerItem read(JsonReader reader) throws IOException {
+        SummonerItem summonerItem = new SummonerItem();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "summonerKey":
+                    summonerItem.setSummonerKey(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "summonerName":
+                    summonerItem.setSummonerName(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "division":
+                    summonerItem.setDivision(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "tier":
+                    summonerItem.setTier(TypeAdapterUtils.nextString(reader));
+                    break;
+                case "masteryScore":
+                    summonerItem.setMasteryScore(TypeAdapterUtils.nextInt(reader, summonerItem.getMasteryScore()));
+                    break;
+                case "lastUpdated":
+                    summonerItem.setLastUpdated(TypeAdapterUtils.nextLong(reader, summonerItem.getLastUpdated()));
+                    break;
+                case "profileIconId":
+                    summonerItem.setProfileIconId(TypeAdapterUtils.nextInt(reader, summonerItem.getProfileIconId()));
+                    break;
+                case "revisionDate":
+                    summonerItem.setRevisionDate(TypeAdapterUtils.nextLong(reader, summonerItem.getRevisionDate()));
+                    break;
+                case "summonerLevel":
+                    summonerItem.setSummonerLevel(TypeAdapterUtils.nextLong(reader, summonerItem.getSummonerLevel()));
+                    break;
+                case "lastMatchTime":
+                    summonerItem.setLastMatchTime(TypeAdapterUtils.nextLong(reader));
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return summonerItem;
+    }
+}
@@ -0,0 +1,181 @@
+package com.lvack.MasterStats.Util.TypeAdapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TypeAdapterUtilsClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * helper functions shared by the hand-written type adapters
+ */
+class TypeAdapterUtils {
+    /**
+     * reads a string which might be null
+     *
+     * @param reader the reader positioned at the string
+     * @return the string or null
+     * @throws IOException if the json could not be read
+     */
+    static String nextString(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    /**
+     * reads a long which might be null
+     *
+     * @param reader the reader positioned at the number
+     * @return the long or null
+     * @throws IOException if the json could not be read
+     */
+    static Long nextLong(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextLong();
+    }
+
+    /**
+     * reads a long of a primitive field, skipping null like the reflective gson does
+     *
+     * @param reader       the reader positioned at the number
+     * @param defaultValue the value returned if the number is null, the current value of the field
+     * @return the long or the default value
+     * @throws IOException if the json could not be read
+     */
+    static long nextLong(JsonReader reader, long defaultValue) throws IOException {
+        Long value = nextLong(reader);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * reads an int of a primitive field, skipping null like the reflective gson does
+     *
+     * @param reader       the reader positioned at the number
+     * @param defaultValue the value returned if the number is null, the current value of the field
+     * @return the int or the default value
+     * @throws IOException if the json could not be read
+     */
+    static int nextInt(JsonReader reader, int defaultValue) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return defaultValue;
+        }
+        return reader.nextInt();
+    }
+
+    /**
+     * reads a boolean of a primitive field, skipping null like the reflective gson does
+     *
+     * @param reader       the reader positioned at the boolean
+     * @param defaultValue the value returned if the boolean is null, the current value of the field
+     * @return the boolean or the default value
+     * @throws IOException if the json could not be read
+     */
+    static boolean nextBoolean(JsonReader reader, boolean defaultValue) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return defaultValue;
+        }
+        return reader.nextBoolean();
+    }
+
+    /**
+     * reads a json array using the given adapter for the elements
+     *
+     * @param reader  the reader positioned at the array
+     * @param adapter the adapter for the elements
+     * @param <T>     the type of the elements
+     * @return the list of elements, null if the array is null
+     * @throws IOException if the json could not be read
+     */
+    static <T> List<T> readList(JsonReader reader, TypeAdapter<T> adapter) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        List<T> list = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) list.add(adapter.read(reader));
+        reader.endArray();
+        return list;
+    }
+
+    /**
+     * writes a list as json array using the given adapter for the elements
+     *
+     * @param writer  the writer to write to
+     * @param list    the list to write, null is written as null
+     * @param adapter the adapter for the elements
+     * @param <T>     the type of the elements
+     * @throws IOException if the json could not be written
+     */
+    static <T> void writeList(JsonWriter writer, List<T> list, TypeAdapter<T> adapter) throws IOException {
+        if (list == null) {
+            writer.nullValue();
+            return;
+        }
+        writer.beginArray();
+        for (T t : list) adapter.write(writer, t);
+        writer.endArray();
+    }
+
+    /**
+     * reads a json object with string keys using the given adapter for the values
+     *
+     * @param reader  the reader positioned at the object
+     * @param adapter the adapter for the values
+     * @param <T>     the type of the values
+     * @return the map of keys and values, null if the object is null
+     * @throws IOException if the json could not be read
+     */
+    static <T> HashMap<String, T> readMap(JsonReader reader, TypeAdapter<T> adapter) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        HashMap<String, T> map = new HashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) map.put(reader.nextName(), adapter.read(reader));
+        reader.endObject();
+        return map;
+    }
+
+    /**
+     * writes a map with string keys as json object using the given adapter for the values
+     *
+     * @param writer  the writer to write to
+     * @param map     the map to write, null is written as null
+     * @param adapter the adapter for the values
+     * @param <T>     the type of the values
+     * @throws IOException if the json could not be written
+     */
+    static <T> void writeMap(JsonWriter writer, Map<String, T> map, TypeAdapter<T> adapter) throws IOException {
+        if (map == null) {
+            writer.nullValue();
+            return;
+        }
+        writer.beginObject();
+        for (Map.Entry<String, T> entry : map.entrySet()) {
+            writer.name(entry.getKey());
+            adapter.write(writer, entry.getValue());
+        }
+        writer.endObject();
+    }
+}
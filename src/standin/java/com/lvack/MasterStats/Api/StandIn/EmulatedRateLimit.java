@@ -0,0 +1,79 @@
+package com.lvack.MasterStats.Api.StandIn;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * EmulatedRateLimitClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * rate limits of a single api key and endpoint as enforced by the riot api, used by the stand-in server.
+ * counts the requests in fixed windows and reports them in the riot rate limit header format
+ */
+class EmulatedRateLimit {
+    private final List<Window> windows = new ArrayList<>();
+
+    /**
+     * @param limits comma separated list of limits in the riot header format (limit:seconds)
+     */
+    EmulatedRateLimit(String limits) {
+        for (String entry : limits.split(",")) {
+            String[] split = entry.trim().split(":");
+            if (split.length == 2) windows.add(new Window(Integer.parseInt(split[0]), Integer.parseInt(split[1])));
+        }
+    }
+
+    /**
+     * counts a request if all windows allow it
+     *
+     * @return 0 if the request is allowed, otherwise the time in seconds until it would be allowed
+     */
+    synchronized long tryAcquire() {
+        long now = System.currentTimeMillis();
+        long retryAfter = 0;
+        for (Window window : windows) {
+            if (now - window.start >= window.seconds * 1000L) {
+                window.start = now;
+                window.count = 0;
+            }
+            if (window.count >= window.limit)
+                retryAfter = Math.max(retryAfter, (window.start + window.seconds * 1000L - now + 999) / 1000);
+        }
+        if (retryAfter > 0) return retryAfter;
+        windows.forEach(w -> w.count++);
+        return 0;
+    }
+
+    /**
+     * @return the limits in the riot header format (e.g. 10:10,500:600)
+     */
+    String getLimitHeader() {
+        return windows.stream().map(w -> w.limit + ":" + w.seconds).collect(Collectors.joining(","));
+    }
+
+    /**
+     * @return the request counts in the riot header format (e.g. 3:10,25:600)
+     */
+    synchronized String getCountHeader() {
+        return windows.stream().map(w -> w.count + ":" + w.seconds).collect(Collectors.joining(","));
+    }
+
+    /**
+     * a fixed rate limit window
+     */
+    private static class Window {
+        private final int limit;
+        private final int seconds;
+        private long start = 0;
+        private int count = 0;
+
+        Window(int limit, int seconds) {
+            this.limit = limit;
+            this.seconds = seconds;
+        }
+    }
+}
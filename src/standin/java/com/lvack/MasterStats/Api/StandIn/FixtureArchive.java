@@ -0,0 +1,135 @@
+package com.lvack.MasterStats.Api.StandIn;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * FixtureArchiveClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * zip archive of recorded riot api responses used by the stand-in server. every response is stored as one
+ * compressed entry named after the request (endpoint, path and query without the api key),
+ * the first line of the entry is the status code followed by the response body
+ */
+@Slf4j
+class FixtureArchive {
+    private final Map<String, Fixture> fixtures = new ConcurrentHashMap<>();
+    private ZipOutputStream out;
+
+    /**
+     * loads the responses stored in an archive
+     *
+     * @param file the archive, ignored if it does not exist
+     * @throws IOException if the archive could not be read
+     */
+    void load(File file) throws IOException {
+        if (!file.exists()) return;
+        try (ZipInputStream in = new ZipInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) content.write(buffer, 0, read);
+                byte[] bytes = content.toByteArray();
+                int newLine = 0;
+                while (newLine < bytes.length && bytes[newLine] != '\n') newLine++;
+                int status = Integer.parseInt(new String(bytes, 0, newLine, StandardCharsets.UTF_8).trim());
+                byte[] body = new byte[Math.max(0, bytes.length - newLine - 1)];
+                System.arraycopy(bytes, Math.min(bytes.length, newLine + 1), body, 0, body.length);
+                fixtures.put(entry.getName(), new Fixture(status, body));
+            }
+        }
+        log.info(String.format("Loaded %d recorded responses from '%s'", fixtures.size(), file.getPath()));
+    }
+
+    /**
+     * starts recording to an archive. responses loaded before are written to it again,
+     * so recording to an existing archive adds the new responses to it
+     *
+     * @param file the archive to write to
+     * @throws IOException if the archive could not be written
+     */
+    synchronized void startRecording(File file) throws IOException {
+        out = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        for (Map.Entry<String, Fixture> entry : fixtures.entrySet()) write(entry.getKey(), entry.getValue());
+    }
+
+    /**
+     * stores a response and writes it to the archive if recording
+     *
+     * @param key    the request key
+     * @param status the status code of the response
+     * @param body   the body of the response
+     */
+    synchronized void record(String key, int status, byte[] body) {
+        Fixture fixture = new Fixture(status, body);
+        // zip entries can not be replaced, so only the first response of a request is recorded
+        if (fixtures.putIfAbsent(key, fixture) != null || out == null) return;
+        try {
+            write(key, fixture);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void write(String key, Fixture fixture) throws IOException {
+        out.putNextEntry(new ZipEntry(key));
+        out.write(String.format("%d\n", fixture.getStatus()).getBytes(StandardCharsets.UTF_8));
+        out.write(fixture.getBody());
+        out.closeEntry();
+    }
+
+    /**
+     * finishes the archive being recorded
+     */
+    synchronized void close() {
+        if (out == null) return;
+        try {
+            out.close();
+            log.info(String.format("Recorded archive with %d responses", fixtures.size()));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        out = null;
+    }
+
+    /**
+     * @param key the request key
+     * @return the stored response for the request, null if none is stored
+     */
+    Fixture get(String key) {
+        return fixtures.get(key);
+    }
+
+    /**
+     * a stored response
+     */
+    static class Fixture {
+        private final int status;
+        private final byte[] body;
+
+        Fixture(int status, byte[] body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        int getStatus() {
+            return status;
+        }
+
+        byte[] getBody() {
+            return body;
+        }
+    }
+}
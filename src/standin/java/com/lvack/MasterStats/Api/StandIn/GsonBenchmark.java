@@ -0,0 +1,201 @@
+package com.lvack.MasterStats.Api.StandIn;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.lvack.MasterStats.Api.ResponseClasses.*;
+import com.lvack.MasterStats.Api.StaticData.RiotEndpoint;
+import com.lvack.MasterStats.Db.DataClasses.ChampionMasteryItem;
+import com.lvack.MasterStats.Db.DataClasses.SummonerItem;
+import com.lvack.MasterStats.Util.GsonProvider;
+import com.lvack.MasterStats.Util.Pair;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static com.lvack.MasterStats.Util.SummonerKeyUtils.summonerIdRegionToKey;
+
+/**
+ * GsonBenchmarkClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * measures the parse and serialize throughput of the riot api response classes and the db items stored as json,
+ * once with a reflective gson instance and once with the gson instance of the application using the hand-written
+ * type adapters. the api responses are generated by the synthetic fixtures of the stand-in server.
+ * the results are printed as operations per second and megabytes per second for every case
+ * <p>
+ * arguments (key=value): iterations (per case and gson instance), warmup (iterations before measuring)
+ */
+public class GsonBenchmark {
+    private static final RiotEndpoint ENDPOINT = RiotEndpoint.EUW;
+    private final Gson reflectiveGson = new Gson();
+    private final Gson adapterGson = GsonProvider.getGSON();
+    private final int iterations;
+    private final int warmup;
+    // the results are summed up, so the jit can not remove the work
+    private long sink = 0;
+
+    private GsonBenchmark(int iterations, int warmup) {
+        this.iterations = iterations;
+        this.warmup = warmup;
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> arguments = new HashMap<>();
+        for (String arg : args) {
+            int index = arg.indexOf('=');
+            if (index > 0) arguments.put(arg.substring(0, index), arg.substring(index + 1));
+        }
+        GsonBenchmark benchmark = new GsonBenchmark(Integer.parseInt(arguments.getOrDefault("iterations", "20000")),
+                Integer.parseInt(arguments.getOrDefault("warmup", "5000")));
+        benchmark.run();
+    }
+
+    /**
+     * runs all cases and prints the results
+     */
+    private void run() {
+        SyntheticFixtures fixtures = new SyntheticFixtures();
+        Map<String, String> noQuery = Collections.emptyMap();
+        Map<String, String> matchListQuery = Collections.singletonMap("endIndex", "10");
+        String summonerIds = LongStream.rangeClosed(1, 40).mapToObj(String::valueOf).collect(Collectors.joining(","));
+        String leagueIds = LongStream.rangeClosed(1, 10).mapToObj(String::valueOf).collect(Collectors.joining(","));
+
+        List<BenchmarkCase> cases = new ArrayList<>();
+        cases.add(new BenchmarkCase("summoners by ids (40)", new TypeToken<HashMap<String, SummonerDto>>() {
+        }.getType(), body(fixtures, "/api/lol/euw/v1.4/summoner/" + summonerIds, noQuery)));
+        cases.add(new BenchmarkCase("leagues by summoners (10)", new TypeToken<HashMap<String, List<LeagueDto>>>() {
+        }.getType(), body(fixtures, "/api/lol/euw/v2.5/league/by-summoner/" + leagueIds, noQuery)));
+        cases.add(new BenchmarkCase("champion masteries", new TypeToken<List<ChampionMasteryDto>>() {
+        }.getType(), body(fixtures, "/championmastery/location/EUW1/player/12345/champions", noQuery)));
+        cases.add(new BenchmarkCase("match list", MatchList.class,
+                body(fixtures, "/api/lol/euw/v2.2/matchlist/by-summoner/12345", matchListQuery)));
+        cases.add(new BenchmarkCase("match detail", MatchDetail.class,
+                body(fixtures, "/api/lol/euw/v2.2/match/123456", noQuery)));
+        cases.add(new BenchmarkCase("champion list", ChampionListDto.class,
+                body(fixtures, "/api/lol/static-data/euw/v1.2/champion", noQuery)));
+
+        // db items stored as json in the statistics, generated from the champion masteries
+        List<ChampionMasteryDto> masteries = adapterGson.fromJson(cases.get(2).json,
+                new TypeToken<List<ChampionMasteryDto>>() {
+                }.getType());
+        List<ChampionMasteryItem> masteryItems = masteries.stream().map(GsonBenchmark::toItem).collect(Collectors.toList());
+        Type masteryItemsType = new TypeToken<List<ChampionMasteryItem>>() {
+        }.getType();
+        cases.add(new BenchmarkCase("champion mastery items", masteryItemsType,
+                adapterGson.toJson(masteryItems, masteryItemsType)));
+        List<Pair<SummonerItem, ChampionMasteryItem>> topSummoners = new ArrayList<>();
+        for (int i = 0; i < 20; i++) topSummoners.add(new Pair<>(summonerItem(i), masteryItems.get(i % masteryItems.size())));
+        Type topSummonersType = new TypeToken<List<Pair<SummonerItem, ChampionMasteryItem>>>() {
+        }.getType();
+        cases.add(new BenchmarkCase("top summoners (20)", topSummonersType,
+                adapterGson.toJson(topSummoners, topSummonersType)));
+
+        System.out.println(String.format("%d iterations per case after %d warmup iterations", iterations, warmup));
+        System.out.println(String.format("%-26s %-10s %8s %14s %10s %14s %10s", "case", "gson", "bytes",
+                "parse ops/s", "MB/s", "serialize ops/s", "MB/s"));
+        for (BenchmarkCase benchmarkCase : cases) {
+            measure(benchmarkCase, "reflective", reflectiveGson);
+            measure(benchmarkCase, "adapters", adapterGson);
+        }
+    }
+
+    /**
+     * measures and prints the parse and serialize throughput of a case with a gson instance
+     *
+     * @param benchmarkCase the case
+     * @param name          the name of the gson instance
+     * @param gson          the gson instance
+     */
+    private void measure(BenchmarkCase benchmarkCase, String name, Gson gson) {
+        int bytes = benchmarkCase.json.getBytes(StandardCharsets.UTF_8).length;
+        Object parsed = gson.fromJson(benchmarkCase.json, benchmarkCase.type);
+        for (int i = 0; i < warmup; i++) {
+            sink += gson.fromJson(benchmarkCase.json, benchmarkCase.type).hashCode();
+            sink += gson.toJson(parsed, benchmarkCase.type).length();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) sink += gson.fromJson(benchmarkCase.json, benchmarkCase.type).hashCode();
+        long parseNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) sink += gson.toJson(parsed, benchmarkCase.type).length();
+        long serializeNanos = System.nanoTime() - start;
+
+        System.out.println(String.format("%-26s %-10s %8d %14.0f %10.1f %14.0f %10.1f", benchmarkCase.name, name,
+                bytes, opsPerSecond(parseNanos), megabytesPerSecond(parseNanos, bytes),
+                opsPerSecond(serializeNanos), megabytesPerSecond(serializeNanos, bytes)));
+    }
+
+    private double opsPerSecond(long nanos) {
+        return iterations / (nanos / 1e9);
+    }
+
+    private double megabytesPerSecond(long nanos, int bytes) {
+        return opsPerSecond(nanos) * bytes / (1024 * 1024);
+    }
+
+    /**
+     * generates the json of a synthetic response
+     *
+     * @param fixtures the synthetic fixtures
+     * @param path     the path of the request
+     * @param query    the query parameters of the request
+     * @return the json body of the response
+     */
+    private static String body(SyntheticFixtures fixtures, String path, Map<String, String> query) {
+        FixtureArchive.Fixture fixture = fixtures.generate(ENDPOINT, path, query);
+        if (fixture == null || fixture.getStatus() != 200)
+            throw new IllegalStateException(String.format("No synthetic response for '%s'", path));
+        return new String(fixture.getBody(), StandardCharsets.UTF_8);
+    }
+
+    private static ChampionMasteryItem toItem(ChampionMasteryDto m) {
+        ChampionMasteryItem item = new ChampionMasteryItem();
+        item.setSummonerKey(summonerIdRegionToKey(m.getPlayerId(), ENDPOINT));
+        item.setChampionId(m.getChampionId());
+        item.setChampionPoints(m.getChampionPoints());
+        item.setChestGranted(m.isChestGranted() ? 1 : 0);
+        item.setChampionLevel(m.getChampionLevel());
+        item.setChampionPointsSinceLastLevel(m.getChampionPointsSinceLastLevel());
+        item.setChampionPointsUntilNextLevel(m.getChampionPointsUntilNextLevel());
+        item.setHighestGrade(m.getHighestGrade() == null ? "null" : m.getHighestGrade());
+        item.setLastPlayTime(m.getLastPlayTime());
+        return item;
+    }
+
+    private static SummonerItem summonerItem(int i) {
+        SummonerItem item = new SummonerItem();
+        item.setSummonerKey(summonerIdRegionToKey(i, ENDPOINT));
+        item.setSummonerName("Summoner" + i);
+        item.setTier("GOLD");
+        item.setDivision("III");
+        item.setMasteryScore(100 + i);
+        item.setLastUpdated(1462000000000L + i);
+        item.setProfileIconId(i);
+        item.setRevisionDate(1462000000000L - i);
+        item.setSummonerLevel(30);
+        item.setLastMatchTime(1461000000000L + i);
+        return item;
+    }
+
+    /**
+     * a json document and the type it is parsed to
+     */
+    private static class BenchmarkCase {
+        private final String name;
+        private final Type type;
+        private final String json;
+
+        BenchmarkCase(String name, Type type, String json) {
+            this.name = name;
+            this.type = type;
+            this.json = json;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.lvack.MasterStats.Api.StandIn;
+
+import com.lvack.MasterStats.Api.StaticData.RiotEndpoint;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * StandInServerClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * local stand-in for the riot api, used to run the application and crawler without a real api key.
+ * the application sends its requests here if the hostOverride property is set (e.g. http://localhost:8089/),
+ * the first path segment of every request is the name of the riot endpoint.
+ * responses are served from a recorded archive if available and generated synthetically otherwise.
+ * the rate limits of the riot api are emulated per api key and endpoint, latency and errors can be injected.
+ * in record mode, requests not in the archive are sent to the riot api and the responses are added to the archive
+ * <p>
+ * arguments (key=value): port, archive, record, synthetic, limits (limit:seconds list or none),
+ * latency (ms), jitter (ms), errorRate (0 to 1)
+ */
+@Slf4j
+public class StandInServer {
+    private static final String API_KEY_PARAMETER = "api_key";
+    private static final byte[] NOT_FOUND = "{\"status\":{\"message\":\"Not Found\",\"status_code\":404}}"
+            .getBytes(StandardCharsets.UTF_8);
+    private final FixtureArchive archive = new FixtureArchive();
+    private final SyntheticFixtures syntheticFixtures = new SyntheticFixtures();
+    private final Map<String, EmulatedRateLimit> rateLimits = new ConcurrentHashMap<>();
+    private final boolean record;
+    private final boolean synthetic;
+    private final String limits;
+    private final long latency;
+    private final long jitter;
+    private final double errorRate;
+
+    private StandInServer(Map<String, String> arguments) throws IOException {
+        record = Boolean.parseBoolean(arguments.getOrDefault("record", "false"));
+        synthetic = Boolean.parseBoolean(arguments.getOrDefault("synthetic", "true"));
+        String limits = arguments.getOrDefault("limits", "10:10,500:600");
+        this.limits = "none".equals(limits) ? null : limits;
+        latency = Long.parseLong(arguments.getOrDefault("latency", "0"));
+        jitter = Long.parseLong(arguments.getOrDefault("jitter", "0"));
+        errorRate = Double.parseDouble(arguments.getOrDefault("errorRate", "0"));
+
+        String archivePath = arguments.get("archive");
+        if (archivePath != null) {
+            File archiveFile = new File(archivePath);
+            archive.load(archiveFile);
+            if (record) {
+                archive.startRecording(archiveFile);
+                Runtime.getRuntime().addShutdownHook(new Thread(archive::close));
+            }
+        } else if (record) {
+            throw new IllegalArgumentException("Recording requires an archive");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> arguments = new HashMap<>();
+        for (String arg : args) {
+            int index = arg.indexOf('=');
+            if (index > 0) arguments.put(arg.substring(0, index), arg.substring(index + 1));
+        }
+        int port = Integer.parseInt(arguments.getOrDefault("port", "8089"));
+        StandInServer standInServer = new StandInServer(arguments);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/", standInServer::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        log.info(String.format("Riot API stand-in listening on port %d (record: %b, synthetic: %b, limits: %s)",
+                port, standInServer.record, standInServer.synthetic, standInServer.limits));
+    }
+
+    /**
+     * handles a request by emulating the rate limits, injecting latency and errors and
+     * sending the recorded, proxied or synthetic response
+     *
+     * @param exchange the exchange of the request
+     */
+    private void handle(HttpExchange exchange) {
+        try {
+            String rawPath = exchange.getRequestURI().getRawPath();
+            int split = rawPath.indexOf('/', 1);
+            RiotEndpoint endpoint = split > 0 ? parseEndpoint(rawPath.substring(1, split)) : null;
+            if (endpoint == null) {
+                send(exchange, 404, NOT_FOUND);
+                return;
+            }
+            String path = rawPath.substring(split);
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            String apiKey = query.remove(API_KEY_PARAMETER);
+
+            if (limits != null) {
+                EmulatedRateLimit rateLimit = rateLimits.computeIfAbsent(apiKey + "@" + endpoint.name(),
+                        k -> new EmulatedRateLimit(limits));
+                long retryAfter = rateLimit.tryAcquire();
+                exchange.getResponseHeaders().add("X-App-Rate-Limit", rateLimit.getLimitHeader());
+                exchange.getResponseHeaders().add("X-App-Rate-Limit-Count", rateLimit.getCountHeader());
+                if (retryAfter > 0) {
+                    exchange.getResponseHeaders().add("Retry-After", String.valueOf(retryAfter));
+                    exchange.getResponseHeaders().add("X-Rate-Limit-Type", "application");
+                    send(exchange, 429, new byte[0]);
+                    return;
+                }
+            }
+
+            if (latency > 0 || jitter > 0) {
+                Thread.sleep(latency + (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter) : 0));
+            }
+            Random random = ThreadLocalRandom.current();
+            if (errorRate > 0 && random.nextDouble() < errorRate) {
+                send(exchange, random.nextBoolean() ? 500 : 503, new byte[0]);
+                return;
+            }
+
+            String key = endpoint.name() + path + "?" + query.entrySet().stream()
+                    .map(e -> e.getKey() + "=" + e.getValue()).collect(Collectors.joining("&"));
+            FixtureArchive.Fixture fixture = archive.get(key);
+            if (fixture == null && record) fixture = proxy(endpoint, path, exchange.getRequestURI().getRawQuery(), key);
+            if (fixture == null && synthetic) {
+                Map<String, String> decodedQuery = new HashMap<>();
+                for (Map.Entry<String, String> entry : query.entrySet())
+                    decodedQuery.put(entry.getKey(), URLDecoder.decode(entry.getValue(), "UTF-8"));
+                fixture = syntheticFixtures.generate(endpoint, URLDecoder.decode(path, "UTF-8"), decodedQuery);
+            }
+            if (fixture == null) send(exchange, 404, NOT_FOUND);
+            else send(exchange, fixture.getStatus(), fixture.getBody());
+        } catch (Exception e) {
+            e.printStackTrace();
+            try {
+                send(exchange, 500, new byte[0]);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * sends a request to the riot api and records the response
+     *
+     * @param endpoint the endpoint to send the request to
+     * @param path     the path of the request
+     * @param rawQuery the query of the request, including the api key
+     * @param key      the key to record the response with
+     * @return the response
+     * @throws IOException if the request failed
+     */
+    private FixtureArchive.Fixture proxy(RiotEndpoint endpoint, String path, String rawQuery, String key) throws IOException {
+        URL url = new URL(endpoint.getApiHost() + path.substring(1) + (rawQuery != null ? "?" + rawQuery : ""));
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        int status = connection.getResponseCode();
+        InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        if (in != null) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) body.write(buffer, 0, read);
+            in.close();
+        }
+        log.info(String.format("Proxied %s: %d", key, status));
+        // rate limited and failed requests are not recorded, they should be retried instead of replayed
+        if (status == 200 || status == 404) archive.record(key, status, body.toByteArray());
+        return new FixtureArchive.Fixture(status, body.toByteArray());
+    }
+
+    private static RiotEndpoint parseEndpoint(String name) {
+        try {
+            return RiotEndpoint.valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * parses a raw query to a map sorted by parameter name, so the order of the parameters does not change the key
+     *
+     * @param rawQuery the raw query
+     * @return the sorted parameters, not decoded
+     */
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new TreeMap<>();
+        if (rawQuery == null) return query;
+        for (String parameter : rawQuery.split("&")) {
+            int index = parameter.indexOf('=');
+            if (index > 0) query.put(parameter.substring(0, index), parameter.substring(index + 1));
+            else if (parameter.length() > 0) query.put(parameter, "");
+        }
+        return query;
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+        exchange.close();
+    }
+}
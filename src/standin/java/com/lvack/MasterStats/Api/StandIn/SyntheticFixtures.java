@@ -0,0 +1,269 @@
+package com.lvack.MasterStats.Api.StandIn;
+
+import com.google.gson.Gson;
+import com.lvack.MasterStats.Api.ResponseClasses.*;
+import com.lvack.MasterStats.Api.StaticData.RiotEndpoint;
+import com.lvack.MasterStats.Util.GsonProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SyntheticFixturesClass for MasterStats
+ *
+ * @author Leon Vack
+ */
+
+/**
+ * generates synthetic responses for the riot api functions used by the sub apis. the responses are
+ * generated deterministically from the requested ids, so the same request always gets the same response
+ * and summoners, matches and champions reference each other consistently
+ */
+class SyntheticFixtures {
+    private static final Gson GSON = GsonProvider.getGSON();
+    private static final Pattern SUMMONER_BY_NAME = Pattern.compile("/api/lol/[^/]+/v1\\.4/summoner/by-name/([^/]+)");
+    private static final Pattern SUMMONER_BY_ID = Pattern.compile("/api/lol/[^/]+/v1\\.4/summoner/([0-9,]+)");
+    private static final Pattern LEAGUE = Pattern.compile("/api/lol/[^/]+/v2\\.5/league/by-summoner/([0-9,]+)");
+    private static final Pattern MATCH = Pattern.compile("/api/lol/[^/]+/v2\\.2/match/([0-9]+)");
+    private static final Pattern MATCH_LIST = Pattern.compile("/api/lol/[^/]+/v2\\.2/matchlist/by-summoner/([0-9]+)");
+    private static final Pattern CHAMPIONS = Pattern.compile("/api/lol/static-data/[^/]+/v1\\.2/champion");
+    private static final Pattern MASTERY = Pattern.compile(
+            "/championmastery/location/[^/]+/player/([0-9]+)/(champions|score|topchampions|champion/([0-9]+))");
+    private static final String[] TIERS = new String[]{"BRONZE", "SILVER", "GOLD", "PLATINUM", "DIAMOND", "MASTER"};
+    private static final String[] DIVISIONS = new String[]{"V", "IV", "III", "II", "I"};
+    private static final String[] GRADES = new String[]{"S+", "S", "S-", "A+", "A", "A-", "B+", "B", "C", "D"};
+    private static final int CHAMPION_COUNT = 130;
+    // number of summoners and matches per region, small enough for summoners to share matches
+    private static final long SUMMONER_COUNT = 1000000;
+    private static final long MATCH_COUNT = 5000000;
+    private static final long BASE_TIME = 1462000000000L;
+
+    /**
+     * generates the response for a request
+     *
+     * @param endpoint the endpoint the request was sent to
+     * @param path     the path of the request (without the endpoint prefix)
+     * @param query    the query parameters of the request
+     * @return the response, null if the path is not known
+     */
+    FixtureArchive.Fixture generate(RiotEndpoint endpoint, String path, Map<String, String> query) {
+        Matcher matcher;
+        if ((matcher = SUMMONER_BY_NAME.matcher(path)).matches()) return summonersByName(matcher.group(1));
+        if ((matcher = SUMMONER_BY_ID.matcher(path)).matches()) return summonersById(parseIds(matcher.group(1)));
+        if ((matcher = LEAGUE.matcher(path)).matches()) return leagues(parseIds(matcher.group(1)));
+        if ((matcher = MATCH.matcher(path)).matches()) return match(endpoint, Long.parseLong(matcher.group(1)));
+        if ((matcher = MATCH_LIST.matcher(path)).matches())
+            return matchList(endpoint, Long.parseLong(matcher.group(1)), query);
+        if ((matcher = CHAMPIONS.matcher(path)).matches()) return json(champions());
+        if ((matcher = MASTERY.matcher(path)).matches()) {
+            List<ChampionMasteryDto> masteries = masteries(Long.parseLong(matcher.group(1)));
+            if (matcher.group(3) != null) {
+                long championId = Long.parseLong(matcher.group(3));
+                return masteries.stream().filter(m -> m.getChampionId() == championId).findFirst()
+                        .map(this::json).orElse(notFound());
+            }
+            switch (matcher.group(2)) {
+                case "score":
+                    return json(masteries.stream().mapToInt(ChampionMasteryDto::getChampionLevel).sum());
+                case "topchampions":
+                    int count = Integer.parseInt(query.getOrDefault("count", "3"));
+                    masteries.sort((a, b) -> Integer.compare(b.getChampionPoints(), a.getChampionPoints()));
+                    return json(masteries.subList(0, Math.min(count, masteries.size())));
+                default:
+                    return json(masteries);
+            }
+        }
+        return null;
+    }
+
+    private FixtureArchive.Fixture summonersByName(String names) {
+        Map<String, SummonerDto> summoners = new HashMap<>();
+        for (String name : names.split(",")) {
+            String key = name.toLowerCase().replace(" ", "");
+            // names like "summoner123" belong to the summoner with id 123, others get an id from their hash
+            long id = key.matches("summoner[0-9]+") ? Long.parseLong(key.substring(8)) :
+                    Math.floorMod(key.hashCode(), SUMMONER_COUNT) + 1;
+            SummonerDto summoner = summoner(id);
+            summoner.setName(name);
+            summoners.put(key, summoner);
+        }
+        return json(summoners);
+    }
+
+    private FixtureArchive.Fixture summonersById(long[] ids) {
+        Map<String, SummonerDto> summoners = new HashMap<>();
+        for (long id : ids) summoners.put(String.valueOf(id), summoner(id));
+        return json(summoners);
+    }
+
+    private SummonerDto summoner(long id) {
+        Random random = random(id, 1);
+        SummonerDto summoner = new SummonerDto();
+        summoner.setId(id);
+        summoner.setName("Summoner" + id);
+        summoner.setProfileIconId(random.nextInt(30));
+        summoner.setRevisionDate(BASE_TIME + random.nextInt(1000000000));
+        // most summoners are level 30, the others are filtered out by the application
+        summoner.setSummonerLevel(random.nextInt(10) == 0 ? 1 + random.nextInt(29) : 30);
+        return summoner;
+    }
+
+    private FixtureArchive.Fixture leagues(long[] ids) {
+        Map<String, List<LeagueDto>> leagues = new HashMap<>();
+        for (long id : ids) {
+            Random random = random(id, 2);
+            // about half of the summoners are unranked
+            if (random.nextBoolean()) continue;
+            LeagueEntryDto entry = new LeagueEntryDto();
+            entry.setPlayerOrTeamId(String.valueOf(id));
+            entry.setPlayerOrTeamName("Summoner" + id);
+            entry.setDivision(DIVISIONS[random.nextInt(DIVISIONS.length)]);
+            entry.setLeaguePoints(random.nextInt(100));
+            entry.setWins(random.nextInt(500));
+            entry.setLosses(random.nextInt(500));
+            LeagueDto league = new LeagueDto();
+            league.setName("Synthetic League");
+            league.setQueue("RANKED_SOLO_5x5");
+            league.setTier(TIERS[random.nextInt(TIERS.length)]);
+            league.setParticipantId(String.valueOf(id));
+            league.setEntries(Collections.singletonList(entry));
+            leagues.put(String.valueOf(id), Collections.singletonList(league));
+        }
+        // the riot api responds with 404 if none of the summoners is ranked
+        return leagues.isEmpty() ? notFound() : json(leagues);
+    }
+
+    private FixtureArchive.Fixture match(RiotEndpoint endpoint, long matchId) {
+        Random random = random(matchId, 3);
+        MatchDetail match = new MatchDetail();
+        match.setMatchId(matchId);
+        match.setMapId(11);
+        match.setMatchCreation(BASE_TIME + matchId * 1000);
+        match.setMatchDuration(1200 + random.nextInt(1800));
+        match.setMatchMode("CLASSIC");
+        match.setMatchVersion("6.9.1");
+        match.setPlatformId(endpoint.getPlatformId());
+        match.setRegion(endpoint.name());
+        match.setQueueType("TEAM_BUILDER_DRAFT_RANKED_5x5");
+        match.setSeason("SEASON2016");
+        List<ParticipantIdentity> identities = new ArrayList<>();
+        for (int p = 1; p <= 10; p++) {
+            long summonerId = Math.floorMod(matchId * 7919 + p * 104729L, SUMMONER_COUNT) + 1;
+            Player player = new Player();
+            player.setSummonerId(summonerId);
+            player.setSummonerName("Summoner" + summonerId);
+            player.setProfileIcon(random.nextInt(30));
+            player.setMatchHistoryUri("/v1/stats/player_history/" + endpoint.getPlatformId() + "/" + summonerId);
+            ParticipantIdentity identity = new ParticipantIdentity();
+            identity.setParticipantId(p);
+            identity.setPlayer(player);
+            identities.add(identity);
+        }
+        match.setParticipantIdentities(identities);
+        return json(match);
+    }
+
+    private FixtureArchive.Fixture matchList(RiotEndpoint endpoint, long summonerId, Map<String, String> query) {
+        Random random = random(summonerId, 4);
+        int totalGames = random.nextInt(8) == 0 ? 0 : random.nextInt(200);
+        // the matches are an hour apart starting at the base time, so only the newest ones are played since beginTime
+        long beginTime = Long.parseLong(query.getOrDefault("beginTime", "0"));
+        if (beginTime > BASE_TIME) totalGames = 0;
+        else if (beginTime > 0) totalGames = (int) Math.min(totalGames, (BASE_TIME - beginTime) / 3600000 + 1);
+        int beginIndex = Integer.parseInt(query.getOrDefault("beginIndex", "0"));
+        int endIndex = Math.min(totalGames, Integer.parseInt(query.getOrDefault("endIndex", String.valueOf(totalGames))));
+        List<MatchReference> matches = new ArrayList<>();
+        for (int i = beginIndex; i < endIndex; i++) {
+            MatchReference reference = new MatchReference();
+            reference.setMatchId(Math.floorMod(summonerId * 1000003 + i * 7, MATCH_COUNT) + 1);
+            reference.setChampion(1 + random.nextInt(CHAMPION_COUNT));
+            reference.setPlatformId(endpoint.getPlatformId());
+            reference.setRegion(endpoint.name());
+            reference.setQueue("TEAM_BUILDER_DRAFT_RANKED_5x5");
+            reference.setSeason("SEASON2016");
+            reference.setLane("MID");
+            reference.setRole("SOLO");
+            reference.setTimestamp(BASE_TIME - i * 3600000L);
+            matches.add(reference);
+        }
+        MatchList matchList = new MatchList();
+        matchList.setMatches(matches);
+        matchList.setStartIndex(beginIndex);
+        matchList.setEndIndex(Math.max(beginIndex, endIndex));
+        matchList.setTotalGames(totalGames);
+        return json(matchList);
+    }
+
+    private ChampionListDto champions() {
+        HashMap<String, ChampionDto> data = new HashMap<>();
+        for (int id = 1; id <= CHAMPION_COUNT; id++) {
+            ImageDto image = new ImageDto();
+            image.setFull("Champion" + id + ".png");
+            image.setGroup("champion");
+            image.setSprite("champion0.png");
+            image.setW(48);
+            image.setH(48);
+            ChampionDto champion = new ChampionDto();
+            champion.setId(id);
+            champion.setKey("Champion" + id);
+            champion.setName("Champion " + id);
+            champion.setTitle("the Synthetic");
+            champion.setImage(image);
+            data.put(champion.getKey(), champion);
+        }
+        ChampionListDto champions = new ChampionListDto();
+        champions.setData(data);
+        champions.setType("champion");
+        champions.setVersion("6.9.1");
+        return champions;
+    }
+
+    private List<ChampionMasteryDto> masteries(long summonerId) {
+        Random random = random(summonerId, 5);
+        int count = 5 + random.nextInt(40);
+        List<ChampionMasteryDto> masteries = new ArrayList<>();
+        Set<Long> championIds = new HashSet<>();
+        while (championIds.size() < count) championIds.add(1L + random.nextInt(CHAMPION_COUNT));
+        for (long championId : championIds) {
+            ChampionMasteryDto mastery = new ChampionMasteryDto();
+            mastery.setPlayerId(summonerId);
+            mastery.setChampionId(championId);
+            mastery.setChampionLevel(1 + random.nextInt(5));
+            mastery.setChampionPoints(random.nextInt(200000));
+            mastery.setChampionPointsSinceLastLevel(random.nextInt(5000));
+            mastery.setChampionPointsUntilNextLevel(random.nextInt(5000));
+            mastery.setChestGranted(random.nextBoolean());
+            mastery.setHighestGrade(random.nextInt(4) == 0 ? null : GRADES[random.nextInt(GRADES.length)]);
+            mastery.setLastPlayTime(BASE_TIME - random.nextInt(1000000000));
+            masteries.add(mastery);
+        }
+        return masteries;
+    }
+
+    /**
+     * creates a random generator for an id. the id is scrambled first, because the first values
+     * generated for similar seeds are similar
+     *
+     * @param id   the id to generate values for
+     * @param salt distinguishes generators of the same id for different responses
+     * @return the random generator
+     */
+    private static Random random(long id, long salt) {
+        return new Random((id ^ salt * 0x632BE59BD9B4E019L) * 0x9E3779B97F4A7C15L);
+    }
+
+    private static long[] parseIds(String ids) {
+        return Arrays.stream(ids.split(",")).filter(s -> s.length() > 0).mapToLong(Long::parseLong).toArray();
+    }
+
+    private FixtureArchive.Fixture json(Object object) {
+        return new FixtureArchive.Fixture(200, GSON.toJson(object).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private FixtureArchive.Fixture notFound() {
+        return new FixtureArchive.Fixture(404, "{\"status\":{\"message\":\"Not Found\",\"status_code\":404}}"
+                .getBytes(StandardCharsets.UTF_8));
+    }
+}